@@ -6,65 +6,104 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.Getter;
 import org.poo.bank.account.Account;
 import org.poo.bank.account.AccountFactory;
+import org.poo.bank.account.AccountLocks;
 import org.poo.bank.account.TransactionInfo;
-import org.poo.bank.card.Card;
+import org.poo.bank.card.CardIndex;
 import org.poo.bank.commerciante.Commerciante;
 import org.poo.bank.exception.*;
+import org.poo.bank.exchange.ExchangeRates;
 import org.poo.bank.transaction.*;
 import org.poo.fileio.CommerciantInput;
 import org.poo.fileio.ExchangeInput;
 import org.poo.fileio.UserInput;
+import org.poo.utils.Iban;
+import org.poo.utils.NumberGenerator;
 
 import java.time.LocalDate;
 import java.time.Period;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
- * Represents a singleton class that models a bank, managing users, accounts,
+ * Represents a class that models a bank, managing users, accounts,
  * exchange rates, transactions, and various banking operations.
+ *
+ * <p>A bank is the context of one run: its users and accounts keep a reference to it, and it
+ * generates its own IBANs and card numbers, so several banks can run concurrently on
+ * different threads without sharing any state.</p>
+ *
+ * <p>The operations moving money may be called from several threads at once: the ones taking
+ * money out of accounts lock them through {@link AccountLocks}, while deposits and interest
+ * only add to the balance with compare-and-set. Adding or removing users, accounts and
+ * aliases is not synchronized and must not run concurrently with other operations.</p>
  */
 public final class Bank {
-    private static Bank instance = null;
+    private static final int INITIAL_CAPACITY = 16;
 
-    private final Map<String, User> usersByEmail;
-    private final Map<String, Account> accountsByIBAN;
-
-    @Getter
-    private final Map<String, Map<String, Double>> exchangeRates;
-
-    private final Map<String, String> aliasesToIBAN;
-    private final Map<String, User> usersByIBAN;
-    private final Map<String, Commerciante> commerciantesByName;
-    private final Map<String, Commerciante> commerciantesByIBAN;
+    /**
+     * Users and accounts get dense ids when they are added to the bank and are stored in
+     * arrays indexed by these ids. Emails and IBANs coming from the commands are translated to
+     * ids once, through the maps below. Accounts are keyed by their packed IBAN.
+     */
+    private final Map<String, Integer> userIds;
+    private User[] users;
+    private int noUsers;
+    private final Map<Iban, Integer> accountIds;
+    private Account[] accounts;
+    private int noAccounts;
 
-    private Bank() {
-        usersByEmail = new LinkedHashMap<>();
+    /**
+     * The current exchange rates. Updates publish a new table atomically, so an operation
+     * reading the table once converts every amount with the same rates, and concurrent updates
+     * are applied one after the other.
+     */
+    private final AtomicReference<ExchangeRates> exchangeRates;
 
-        exchangeRates = new HashMap<>();
-        aliasesToIBAN = new HashMap<>();
-        usersByIBAN = new HashMap<>();
-        accountsByIBAN = new HashMap<>();
-        commerciantesByName = new HashMap<>();
-        commerciantesByIBAN = new HashMap<>();
-    }
+    /**
+     * The id of RON, which commissions and plan thresholds are computed in, or {@code -1} until
+     * the rates know it. Ids never change between a table and the tables derived from it, so it
+     * is only resolved again when the bank is initialized.
+     */
+    private volatile int ronId;
 
+    private final Map<String, Commerciante> commerciantesByName;
 
     /**
-     * Retrieves the single instance of the bank.
-     *
-     * @return the singleton instance of the bank.
+     * Every identifier a transfer may name, IBANs, aliases and the IBANs of commerciants, with
+     * what it resolves to.
      */
-    public static Bank getInstance() {
-        if (instance == null) {
-            instance = new Bank();
-        }
+    private final Map<String, TransferEndpoint> endpoints;
 
-        return instance;
+    @Getter
+    private final CardIndex cardIndex;
+    @Getter
+    private final NumberGenerator numberGenerator;
+    @Getter
+    private final AccountLocks accountLocks;
+    private final BitSet sharedAccounts;
+
+    public Bank() {
+        userIds = new HashMap<>();
+        users = new User[INITIAL_CAPACITY];
+        accountIds = new HashMap<>();
+        accounts = new Account[INITIAL_CAPACITY];
+
+        exchangeRates = new AtomicReference<>(ExchangeRates.of(new ExchangeInput[0]));
+        ronId = -1;
+        commerciantesByName = new HashMap<>();
+        endpoints = new HashMap<>();
+        cardIndex = new CardIndex();
+        numberGenerator = new NumberGenerator();
+        accountLocks = new AccountLocks();
+        sharedAccounts = new BitSet();
     }
 
+
     /**
-     * Initializes the bank's data, including users and exchange rates.
+     * Initializes the bank's data, including users and exchange rates. The pairs of currencies
+     * the rates give no way to convert between are reported on the standard error, and can be
+     * retrieved with {@link #getUnreachablePairs()}.
      *
      * @param users        the array of user inputs to initialize.
      * @param rates        the array of exchange rates to configure.
@@ -72,62 +111,65 @@ public final class Bank {
      */
     public void initializeBank(final UserInput[] users, final ExchangeInput[] rates,
                                final CommerciantInput[] commerciants) {
-        this.usersByEmail.clear();
-        this.exchangeRates.clear();
-        this.usersByIBAN.clear();
-        this.accountsByIBAN.clear();
-        this.aliasesToIBAN.clear();
+        this.userIds.clear();
+        Arrays.fill(this.users, 0, this.noUsers, null);
+        this.noUsers = 0;
+        this.accountIds.clear();
+        Arrays.fill(this.accounts, 0, this.noAccounts, null);
+        this.noAccounts = 0;
         this.commerciantesByName.clear();
-        this.commerciantesByIBAN.clear();
+        this.endpoints.clear();
+        this.cardIndex.clear();
+        this.numberGenerator.reset();
+        this.sharedAccounts.clear();
 
         for (final UserInput user : users) {
-            this.usersByEmail.put(user.getEmail(), new User(user));
+            final Integer id = userIds.get(user.getEmail());
+            if (id != null) {
+                this.users[id] = new User(this, id, user);
+                continue;
+            }
+
+            if (noUsers == this.users.length) {
+                this.users = Arrays.copyOf(this.users, noUsers * 2);
+            }
+            this.users[noUsers] = new User(this, noUsers, user);
+            userIds.put(user.getEmail(), noUsers++);
         }
 
         for (final CommerciantInput commerciant : commerciants) {
             final Commerciante c = new Commerciante(commerciant);
             this.commerciantesByName.put(commerciant.getCommerciant(), c);
-            this.commerciantesByIBAN.put(commerciant.getAccount(), c);
+            getEndpoint(commerciant.getAccount()).setCommerciante(c);
         }
 
-        // add direct rates
-        for (final ExchangeInput rate : rates) {
-            exchangeRates.putIfAbsent(rate.getFrom(), new HashMap<>());
-
-            Map<String, Double> to = exchangeRates.get(rate.getFrom());
-            to.putIfAbsent(rate.getTo(), rate.getRate());
-
-            exchangeRates.putIfAbsent(rate.getTo(), new HashMap<>());
-            Map<String, Double> from = exchangeRates.get(rate.getTo());
-            if (!from.containsKey(rate.getFrom())) {
-                double inverseRate = 1.0 / rate.getRate();
-                from.put(rate.getFrom(), inverseRate);
-            }
+        this.exchangeRates.set(ExchangeRates.of(rates));
+        this.ronId = -1;
+        final List<String> unreachable = getUnreachablePairs();
+        if (!unreachable.isEmpty()) {
+            System.err.println("No exchange rate for " + unreachable.size()
+                    + " pairs of currencies: " + String.join(", ", unreachable));
         }
+    }
 
-        // add indirect rates
-        for (final String from : exchangeRates.keySet()) {
-            for (final String to : exchangeRates.keySet()) {
-                if (!from.equals(to) && !exchangeRates.get(from).containsKey(to)) {
-                    for (String intermediate : exchangeRates.get(from).keySet()) {
-                        if (exchangeRates.get(intermediate).containsKey(to)) {
-                            double rateFromTo = exchangeRates.get(from).get(intermediate);
-                            double rateIntermediateTo = exchangeRates.get(intermediate).get(to);
-                            double indirectRate = rateFromTo * rateIntermediateTo;
-
-                            exchangeRates.get(from).put(to, indirectRate);
-                            break;
-                        }
-                    }
-                }
-            }
-        }
+    /**
+     * Returns the current exchange rates, to be read once by an operation converting several
+     * amounts.
+     *
+     * @return the exchange rates.
+     */
+    public ExchangeRates getExchangeRates() {
+        return exchangeRates.get();
+    }
 
-        // add self rates
-        for (final String from : exchangeRates.keySet()) {
-            Map<String, Double> map = exchangeRates.get(from);
-            map.put(from, 1.0);
-        }
+    /**
+     * Returns the pairs of currencies there is no way to convert between with the current
+     * rates, as {@code "FROM -> TO"}. Payments between such currencies fail.
+     *
+     * @return the unreachable pairs.
+     */
+    public List<String> getUnreachablePairs() {
+        return exchangeRates.get().getUnreachablePairs();
     }
 
 
@@ -143,12 +185,17 @@ public final class Bank {
     public void addAccount(final String email, final String currency,
                            final String accountType, final double interestRate,
                            final int timestamp) {
-        final Account account = AccountFactory.createAccount(currency, accountType, interestRate,
-                email);
-        final User user = usersByEmail.get(email);
+        final Account account = AccountFactory.createAccount(this, currency, accountType,
+                interestRate, email);
+        final User user = getUserByEmail(email);
 
-        accountsByIBAN.put(account.getIban(), account);
-        usersByIBAN.put(account.getIban(), user);
+        if (noAccounts == accounts.length) {
+            accounts = Arrays.copyOf(accounts, noAccounts * 2);
+        }
+        account.register(noAccounts, user.getId());
+        accounts[noAccounts] = account;
+        accountIds.put(account.getPackedIban(), noAccounts++);
+        getEndpoint(account.getIban()).setAccount(account);
         user.addAccount(account, timestamp);
     }
 
@@ -162,7 +209,8 @@ public final class Bank {
      * @return a message if the account could not be deleted, otherwise null.
      */
     public String deleteAccount(final String iban, final String email, final int timestamp) {
-        final User user = usersByEmail.get(email);
+        final User user = getUserByEmail(email);
+        final Account account = user.getAccount(iban);
 
         try {
             user.removeAccount(iban);
@@ -173,8 +221,14 @@ public final class Bank {
 
         }
 
-        accountsByIBAN.remove(iban);
-        usersByIBAN.remove(iban);
+        final Integer accountId = accountIds.remove(Iban.parse(iban));
+        if (accountId != null) {
+            accounts[accountId] = null;
+            getEndpoint(iban).setAccount(null);
+        }
+        if (findHolder(account) == null) {
+            cardIndex.removeAll(account);
+        }
 
         return null;
     }
@@ -188,7 +242,7 @@ public final class Bank {
      * @param timestamp the timestamp of the operation.
      */
     public void createCard(final String iban, final String email, final int timestamp) {
-        final User user = usersByEmail.get(email);
+        final User user = getUserByEmail(email);
 
         if (user == null) {
             return;
@@ -205,11 +259,40 @@ public final class Bank {
      * @param timestamp  the timestamp of the operation.
      */
     public void deleteCard(final String cardNumber, final int timestamp) {
-        for (final User user : usersByEmail.values()) {
+        final Account account = cardIndex.getAccount(cardNumber);
+        if (account == null) {
+            return;
+        }
+
+        final User user = findHolder(account);
+        if (user != null) {
             user.removeCard(cardNumber, timestamp);
         }
     }
 
+    /**
+     * Finds the first user, in the order the users were added to the bank, holding the given
+     * account. Unless the account was shared with business associates, this can only be its
+     * owner.
+     *
+     * @param account the account.
+     * @return the user, or {@code null} if no user holds the account anymore.
+     */
+    private User findHolder(final Account account) {
+        if (!sharedAccounts.get(account.getId())) {
+            final User owner = getUser(account.getOwnerId());
+            return owner != null && owner.holdsAccount(account) ? owner : null;
+        }
+
+        for (int i = 0; i < noUsers; i++) {
+            if (users[i].holdsAccount(account)) {
+                return users[i];
+            }
+        }
+
+        return null;
+    }
+
 
     /**
      * Creates a one-time-use card for the specified account.
@@ -219,7 +302,7 @@ public final class Bank {
      * @param timestamp the timestamp of the operation.
      */
     public void createOneTimeCard(final String iban, final String email, final int timestamp) {
-        final User user = usersByEmail.get(email);
+        final User user = getUserByEmail(email);
 
         user.createOneTimeCard(iban, timestamp);
     }
@@ -236,8 +319,8 @@ public final class Bank {
      */
     public void addFunds(final String iban, final double amount, final String email,
                          final int timestamp) {
-        final User user = usersByEmail.get(email);
-        Account account = accountsByIBAN.get(iban);
+        final User user = getUserByEmail(email);
+        Account account = getAccount(iban);
         final boolean can = account.addFunds(amount, user, timestamp);
         if (can) {
             account.increaseBalance(amount);
@@ -252,7 +335,7 @@ public final class Bank {
      * @param amount the minimum balance to set.
      */
     public void setMinBalance(final String iban, final double amount) {
-        Account account = accountsByIBAN.get(iban);
+        Account account = getAccount(iban);
         account.setMinBalance(amount);
     }
 
@@ -265,15 +348,10 @@ public final class Bank {
      * @return an error message if the card is not found, otherwise null.
      */
     public String checkCardStatus(final String cardNumber, final int timestamp) {
-        for (final User user : usersByEmail.values()) {
-            for (final Account account : user.getAccounts()) {
-                final Card card = account.getCard(cardNumber);
-                if (card != null) {
-                    //user.checkFreezeCard(account, card, timestamp);
-                    return null;
-                }
-
-            }
+        final Account account = cardIndex.getAccount(cardNumber);
+        if (account != null && findHolder(account) != null) {
+            //user.checkFreezeCard(account, card, timestamp);
+            return null;
         }
 
         return "Card not found";
@@ -300,10 +378,10 @@ public final class Bank {
             return null;
         }
 
-        final User user = usersByEmail.get(email);
+        final User user = getUserByEmail(email);
 
         try {
-            user.payOnline(cardNumber, amount, currency, timestamp,
+            user.payOnline(cardNumber, amount, getCurrencyId(currency), timestamp,
                     commerciantesByName.get(commerciante));
         } catch (CardNotFoundException e) {
             return e.getMessage();
@@ -325,32 +403,35 @@ public final class Bank {
      */
     public String sendMoney(final String senderIBAN, final String receiverIBAN,
                             final double amount, final String description, final int timestamp) {
-        final String trueSenderIBAN = aliasesToIBAN.getOrDefault(senderIBAN, senderIBAN);
-        final Account senderAccount = accountsByIBAN.get(trueSenderIBAN);
+        final TransferEndpoint sender = endpoints.get(senderIBAN);
+        final Account senderAccount = sender == null ? null : sender.getAccount();
 
         if (senderAccount == null) {
             return "User not found";
         }
 
-        final Account receiverAccount = accountsByIBAN.get(aliasesToIBAN
-                .getOrDefault(receiverIBAN, receiverIBAN));
-        if (receiverAccount == null && commerciantesByIBAN.get(receiverIBAN) == null) {
+        final TransferEndpoint receiver = endpoints.get(receiverIBAN);
+        final Account receiverAccount = receiver == null ? null : receiver.getAccount();
+        final Commerciante commerciante = receiver == null ? null : receiver.getCommerciante();
+        if (receiverAccount == null && commerciante == null) {
             return "User not found";
         }
 
-        final User user = usersByIBAN.get(trueSenderIBAN);
-        user.sendMoney(trueSenderIBAN, usersByIBAN.get(receiverIBAN),
-                receiverAccount, commerciantesByIBAN.get(receiverIBAN), receiverIBAN,
-                amount, timestamp, description);
+        // only a receiver named by its IBAN gets the transfer in its history
+        final User receiverUser = receiver.isAlias() ? null : getOwner(receiverAccount);
+        try (AccountLocks.Held held = accountLocks.lock(senderAccount, receiverAccount)) {
+            getOwner(senderAccount).sendMoney(senderAccount, receiverUser, receiverAccount,
+                    commerciante, receiverIBAN, amount, timestamp, description);
+        }
         return null;
     }
 
 
     public void splitPayment(final List<String> ibans, final String splitPaymentType,
-                             final List<Double> amounts, final double amount,
+                             final double[] amounts, final double amount,
                              final String currency, final int timestamp) {
         final SplitPayment.SplitPaymentBuilder splitBuilder
-                = new SplitPayment.SplitPaymentBuilder();
+                = new SplitPayment.SplitPaymentBuilder(this);
         splitBuilder.setTotalAmount(amount);
         splitBuilder.setCurrency(currency);
         splitBuilder.setType(splitPaymentType);
@@ -364,9 +445,9 @@ public final class Bank {
 
         for (int i = 0; i < ibans.size(); i++) {
             final String iban = ibans.get(i);
-            final User user = usersByIBAN.get(ibans.get(i));
+            final User user = getOwner(getAccount(ibans.get(i)));
             if (splitAmount == 0.0) {
-                splitBuilder.addAmount(amounts.get(i));
+                splitBuilder.addAmount(amounts[i]);
             }
 
             splitBuilder.addIBAN(iban);
@@ -375,7 +456,7 @@ public final class Bank {
 
         final SplitPayment splitPayment = splitBuilder.build();
         for (final String iban : ibans) {
-            final User user = usersByIBAN.get(iban);
+            final User user = getOwner(getAccount(iban));
             user.addSplitPayment(splitPayment);
         }
     }
@@ -392,8 +473,61 @@ public final class Bank {
     public double convertCurrency(final double amount,
                                   final String fromCurrency,
                                   final String toCurrency) {
-        final Map<String, Map<String, Double>> rates = Bank.getInstance().getExchangeRates();
-        return amount * rates.get(fromCurrency).get(toCurrency);
+        return exchangeRates.get().convert(amount, fromCurrency, toCurrency);
+    }
+
+    /**
+     * Converts an amount between two currencies given by their ids.
+     *
+     * @param amount the amount to convert.
+     * @param fromId the id of the source currency, see {@link #getCurrencyId(String)}.
+     * @param toId   the id of the target currency.
+     * @return the converted amount.
+     */
+    public double convertCurrency(final double amount, final int fromId, final int toId) {
+        return exchangeRates.get().convert(amount, fromId, toId);
+    }
+
+    /**
+     * Retrieves the id of a currency, to be used for conversions.
+     *
+     * @param currency the currency.
+     * @return the id of the currency, or {@code -1} if the bank has no rate for it.
+     */
+    public int getCurrencyId(final String currency) {
+        return exchangeRates.get().getId(currency);
+    }
+
+    /**
+     * Retrieves the id of RON, resolved once rather than on every payment.
+     *
+     * @return the id of RON, or {@code -1} if the bank has no rate for it.
+     */
+    public int getRonId() {
+        if (ronId < 0) {
+            ronId = getCurrencyId("RON");
+        }
+
+        return ronId;
+    }
+
+    /**
+     * Changes the exchange rate between two currencies, and the rate of the inverse conversion.
+     * The rates derived from it are updated and published together as a new table.
+     *
+     * @param from the source currency.
+     * @param to   the target currency.
+     * @param rate how much one unit of the source currency is worth in the target currency.
+     * @return an error message if the operation fails, otherwise null.
+     */
+    public String updateExchangeRate(final String from, final String to, final double rate) {
+        if (from == null || to == null || from.equals(to) || !(rate > 0)
+                || Double.isInfinite(rate)) {
+            return "Invalid exchange rate";
+        }
+
+        exchangeRates.updateAndGet(rates -> rates.withRate(from, to, rate));
+        return null;
     }
 
 
@@ -408,7 +542,7 @@ public final class Bank {
     public String changeInterestRate(final String iban,
                                      final double interestRate,
                                      final int timestamp) {
-        final User user = usersByIBAN.get(iban);
+        final User user = getOwner(getAccount(iban));
         try {
             user.changeInterestRate(iban, interestRate, timestamp);
             return null;
@@ -426,8 +560,8 @@ public final class Bank {
      * @return an error message if the operation fails, otherwise null.
      */
     public String addInterest(final String iban, final int timestamp) {
-        final Account account = accountsByIBAN.get(iban);
-        final User user = usersByIBAN.get(iban);
+        final Account account = getAccount(iban);
+        final User user = getOwner(account);
 
         try {
             final double amount = account.addInterest();
@@ -452,13 +586,14 @@ public final class Bank {
     public ObjectNode getReport(final ObjectMapper objectMapper,
                                 final String iban, final int startTimestamp,
                                 final int endTimestamp) {
-        final User user = usersByIBAN.get(iban);
+        final Account account = getAccount(iban);
+        final User user = getOwner(account);
         if (user == null) {
             return null;
         }
 
-        final List<Transaction> transactions = user.getTransactions();
-        final Account account = accountsByIBAN.get(iban);
+        final List<Transaction> transactions = user.getTransactions(iban, startTimestamp,
+                endTimestamp);
 
         final List<Transaction> filteredTransactions = new ArrayList<>();
         for (final Transaction t : transactions) {
@@ -468,13 +603,7 @@ public final class Bank {
                     continue;
                 }
             }
-            if (t.getIBAN() == null) {
-                continue;
-            }
-            if (t.getTimestamp() >= startTimestamp
-                    && t.getTimestamp() <= endTimestamp && t.getIBAN().contains(iban)) {
-                filteredTransactions.add(t);
-            }
+            filteredTransactions.add(t);
         }
 
         final ObjectNode result = objectMapper.createObjectNode();
@@ -503,13 +632,12 @@ public final class Bank {
      */
     public ObjectNode getSpendingsReport(final ObjectMapper objectMapper, final String iban,
                                          final int startTimestamp, final int endTimestamp) {
-        final User user = usersByIBAN.get(iban);
+        final Account account = getAccount(iban);
+        final User user = getOwner(account);
         if (user == null) {
             return null;
         }
 
-        final List<Transaction> transactions = user.getTransactions();
-        final Account account = accountsByIBAN.get(iban);
         if (account.getType().equals("savings")) {
             final ObjectNode c = objectMapper.createObjectNode();
             c.put("error", "This kind of report is not supported for a saving account");
@@ -517,13 +645,8 @@ public final class Bank {
         }
 
         final List<Transaction> filteredTransactions = new ArrayList<>();
-        for (final Transaction t : transactions) {
-            if (t.getIBAN() == null) {
-                continue;
-            }
-            if (t.getTimestamp() >= startTimestamp
-                    && t.getTimestamp() <= endTimestamp && t.getCommerciant() != null
-                    && t.getIBAN().contains(iban)) {
+        for (final Transaction t : user.getTransactions(iban, startTimestamp, endTimestamp)) {
+            if (t.getCommerciant() != null) {
                 filteredTransactions.add(t);
             }
         }
@@ -575,8 +698,8 @@ public final class Bank {
     */
     public void withdrawSavings(final String iban, final double amount, final String currency,
                                 final int timestamp) {
-        final Account account = accountsByIBAN.get(iban);
-        final User user = usersByIBAN.get(iban);
+        final Account account = getAccount(iban);
+        final User user = getOwner(account);
 
         final LocalDate birthDate = LocalDate.parse(user.getBirthDate());
         final int age = Period.between(birthDate, LocalDate.now()).getYears();
@@ -600,15 +723,17 @@ public final class Bank {
             return;
         }
 
-        final double withdrawAmount = Bank.getInstance().convertCurrency(amount,
+        final double withdrawAmount = convertCurrency(amount,
                 currency, account.getCurrency());
 
-        if (account.getBalance() < withdrawAmount) {
-            return;
-        }
+        try (AccountLocks.Held held = accountLocks.lock(account, destAccount)) {
+            if (account.getBalance() < withdrawAmount) {
+                return;
+            }
 
-        destAccount.increaseBalance(amount);
-        account.decreaseBalance(withdrawAmount);
+            destAccount.increaseBalance(amount);
+            account.decreaseBalance(withdrawAmount);
+        }
 
         user.addTransaction(new SavingsWithdrawTransaction(timestamp,
                 destAccount.getIban(), iban, amount));
@@ -617,7 +742,7 @@ public final class Bank {
     }
 
     public String upgradePlan(final String iban, final String planType, final int timestamp) {
-        final User user = usersByIBAN.get(iban);
+        final User user = getOwner(getAccount(iban));
 
         if (user == null) {
             return "Account not found";
@@ -643,7 +768,7 @@ public final class Bank {
      */
     public String cashWithdrawal(final String email, final String card, final double amount,
                                  final int timestamp) {
-        final User user = usersByEmail.get(email);
+        final User user = getUserByEmail(email);
 
         if (user == null) {
             return "User not found";
@@ -667,7 +792,7 @@ public final class Bank {
      * - {@code null} if the operation was successful.
      */
     public String acceptSplitPayment(final String email) {
-        final User user = usersByEmail.get(email);
+        final User user = getUserByEmail(email);
 
         if (user == null) {
             return "User not found";
@@ -687,7 +812,7 @@ public final class Bank {
      * - {@code null} if the operation was successful.
      */
     public String rejectSplitPayment(final String email) {
-        final User user = usersByEmail.get(email);
+        final User user = getUserByEmail(email);
 
         if (user == null) {
             return "User not found";
@@ -709,15 +834,18 @@ public final class Bank {
      * @param email The email address of the user to be added as a business associate.
      */
     public void addNewBusinessAssociate(final String iban, final String role, final String email) {
-        final Account account = accountsByIBAN.get(iban);
-        final User user = usersByEmail.get(email);
+        final Account account = getAccount(iban);
+        final User user = getUserByEmail(email);
+        if (account.getOwnerId() != user.getId()) {
+            sharedAccounts.set(account.getId());
+        }
 
         switch (role) {
             case "employee":
-                account.addEmployee(email);
+                account.addEmployee(user);
                 break;
             case "manager":
-                account.addManager(email);
+                account.addManager(user);
                 break;
             default:
                 break;
@@ -740,7 +868,7 @@ public final class Bank {
      * - {@code null} if the operation was successful.
      */
     public String changeSpendingLimit(final String iban, final String email, final double limit) {
-        final Account account = accountsByIBAN.get(iban);
+        final Account account = getAccount(iban);
         try {
             account.changeSpendingLimit(email, limit);
         } catch (final UnsupportedOperationException e) {
@@ -766,7 +894,7 @@ public final class Bank {
      * - {@code null} if the operation was successful.
      */
     public String changeDepositLimit(final String iban, final String email, final double limit) {
-        final Account account = accountsByIBAN.get(iban);
+        final Account account = getAccount(iban);
         try {
             account.changeDepositLimit(email, limit);
         } catch (final UnsupportedOperationException e) {
@@ -781,7 +909,7 @@ public final class Bank {
     public ObjectNode businessReport(final ObjectMapper objectMapper, final String type,
                                      final int startTimestamp, final int endTimestamp,
                                      final String iban) {
-        final Account account = accountsByIBAN.get(iban);
+        final Account account = getAccount(iban);
 
         final ObjectNode resultNode = objectMapper.createObjectNode();
 
@@ -822,7 +950,7 @@ public final class Bank {
 
                 final ArrayNode employeesNode = objectMapper.createArrayNode();
                 merchantTransactions.forEach(tx -> {
-                    User user = Bank.getInstance().getUserByEmail(tx.getEmail());
+                    User user = getUserByEmail(tx.getEmail());
                     String username = user.getLastName() + " " + user.getFirstName();
                     employeesNode.add(username);
                 });
@@ -850,7 +978,7 @@ public final class Bank {
                 }
 
                 final double amount = transactionInfo.getAmount();
-                final User user = usersByEmail.get(email);
+                final User user = getUserByEmail(email);
                 final String username = user.getLastName() + " " + user.getFirstName();
 
                 if (amount < 0) {
@@ -864,7 +992,7 @@ public final class Bank {
 
             final ArrayNode employeesArr = objectMapper.createArrayNode();
             for (final String employee : account.getEmployees()) {
-                final User user = usersByEmail.get(employee);
+                final User user = getUserByEmail(employee);
                 final String username = user.getLastName() + " " + user.getFirstName();
 
                 final ObjectNode node = objectMapper.createObjectNode();
@@ -877,7 +1005,7 @@ public final class Bank {
 
             final ArrayNode managersArr = objectMapper.createArrayNode();
             for (final String manager : account.getManagers()) {
-                final User user = usersByEmail.get(manager);
+                final User user = getUserByEmail(manager);
                 final String username = user.getLastName() + " " + user.getFirstName();
 
                 final ObjectNode node = objectMapper.createObjectNode();
@@ -905,7 +1033,15 @@ public final class Bank {
      * @param alias the alias name.
      */
     public void setAlias(final String iban, final String email, final String alias) {
-        aliasesToIBAN.putIfAbsent(alias, iban);
+        final TransferEndpoint target = getEndpoint(iban);
+        endpoints.putIfAbsent(alias, TransferEndpoint.forAlias(target));
+    }
+
+    /**
+     * Retrieves the endpoint of an identifier, creating an empty one if there is none yet.
+     */
+    private TransferEndpoint getEndpoint(final String identifier) {
+        return endpoints.computeIfAbsent(identifier, k -> TransferEndpoint.forIBAN());
     }
 
 
@@ -915,7 +1051,7 @@ public final class Bank {
      * @return the list of users.
      */
     public List<User> getUsers() {
-        return new ArrayList<>(usersByEmail.values());
+        return new ArrayList<>(Arrays.asList(users).subList(0, noUsers));
     }
 
     /**
@@ -927,21 +1063,49 @@ public final class Bank {
      * or {@code null} if no user is found.
      */
     public User getUserByEmail(final String email) {
-        return usersByEmail.get(email);
+        final Integer id = userIds.get(email);
+        return id == null ? null : users[id];
+    }
+
+    /**
+     * Retrieves a user by the id assigned when the user was added to the bank.
+     *
+     * @param id the id of the user.
+     * @return the user, or {@code null} if no user has this id.
+     */
+    public User getUser(final int id) {
+        return id >= 0 && id < noUsers ? users[id] : null;
+    }
+
+    /**
+     * Retrieves an account by its IBAN.
+     *
+     * @param iban the IBAN of the account.
+     * @return the account, or {@code null} if the bank has no account with this IBAN.
+     */
+    public Account getAccount(final String iban) {
+        final Iban packedIban = Iban.parse(iban);
+        final Integer id = packedIban == null ? null : accountIds.get(packedIban);
+        return id == null ? null : accounts[id];
+    }
+
+    /**
+     * Retrieves the user who created an account.
+     *
+     * @param account the account, may be {@code null}.
+     * @return the owner, or {@code null} if there is no account.
+     */
+    private User getOwner(final Account account) {
+        return account == null ? null : users[account.getOwnerId()];
     }
 
     /**
      * Retrieves the transaction history for a specific user.
      *
      * @param email the email of the user.
-     * @return the list of transactions.
+     * @return a read-only copy of the transactions, sorted by timestamp.
      */
     public List<Transaction> getTransactions(final String email) {
-        final User user = usersByEmail.get(email);
-
-        final List<Transaction> transactions = new ArrayList<>(user.getTransactions());
-        transactions.sort(Comparator.comparingInt(Transaction::getTimestamp));
-
-        return transactions;
+        return getUserByEmail(email).getTransactions();
     }
 }
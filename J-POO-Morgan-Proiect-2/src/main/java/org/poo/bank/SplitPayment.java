@@ -2,9 +2,11 @@ package org.poo.bank;
 
 import lombok.Setter;
 import org.poo.bank.account.Account;
+import org.poo.bank.account.AccountLocks;
 import org.poo.bank.transaction.SplitPaymentTransaction;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -14,8 +16,9 @@ import java.util.List;
  * Implements the {@link PaymentObserver} interface to handle payment status updates.
  */
 public final class SplitPayment implements PaymentObserver {
-    private final List<Double> amounts;
-    private final List<Double> convertedAmounts;
+    private final Bank bank;
+    private final double[] amounts;
+    private final double[] convertedAmounts;
     private final List<User> users;
     private final List<String> ibans;
     private final double totalAmount;
@@ -32,7 +35,7 @@ public final class SplitPayment implements PaymentObserver {
      * @param splitBuilder the builder object containing the necessary split payment details.
      */
     private SplitPayment(final SplitPaymentBuilder splitBuilder) {
-        this.amounts = splitBuilder.amounts;
+        this.amounts = Arrays.copyOf(splitBuilder.amounts, splitBuilder.noAmounts);
         this.totalAmount = splitBuilder.totalAmount;
         this.currency = splitBuilder.currency;
         this.type = splitBuilder.type;
@@ -41,15 +44,16 @@ public final class SplitPayment implements PaymentObserver {
         this.timestamp = splitBuilder.timestamp;
         this.noAccepted = 0;
 
-        this.convertedAmounts = new ArrayList<>();
+        this.bank = splitBuilder.bank;
+        this.convertedAmounts = new double[ibans.size()];
         for (int i = 0; i < ibans.size(); i++) {
             final User user = users.get(i);
             final String iban = ibans.get(i);
             final Account account = user.getAccount(iban);
             final double amount = getPayAmountFor(i);
 
-            this.convertedAmounts.add(Bank.getInstance()
-                    .convertCurrency(amount, currency, account.getCurrency()));
+            this.convertedAmounts[i] = bank.convertCurrency(amount,
+                    bank.getCurrencyId(currency), account.getCurrencyId());
         }
 
         this.description = "Split payment of " + String.format("%.2f", totalAmount)
@@ -65,21 +69,27 @@ public final class SplitPayment implements PaymentObserver {
      * @param email    the email of the user responding to the payment request.
      */
     @Override
-    public void update(final boolean accepted, final String email) {
+    public synchronized void update(final boolean accepted, final String email) {
         if (!accepted) {
             cancelSplitPayment(null);
             return;
         }
 
         noAccepted++;
-        if (noAccepted == ibans.size()) {
-            for (int i = 0; i < ibans.size(); i++) {
-                final User user = users.get(i);
-                final String iban = ibans.get(i);
-                final Account account = user.getAccount(iban);
+        if (noAccepted < ibans.size()) {
+            return;
+        }
+
+        final List<Account> accounts = new ArrayList<>(ibans.size());
+        for (int i = 0; i < ibans.size(); i++) {
+            accounts.add(users.get(i).getAccount(ibans.get(i)));
+        }
 
-                if (account.getBalance() < convertedAmounts.get(i)) {
-                    cancelSplitPayment(iban);
+        // every balance is checked and debited under the locks of all the accounts
+        try (AccountLocks.Held held = bank.getAccountLocks().lockAll(accounts)) {
+            for (int i = 0; i < ibans.size(); i++) {
+                if (accounts.get(i).getBalance() < convertedAmounts[i]) {
+                    cancelSplitPayment(ibans.get(i));
                     return;
                 }
             }
@@ -129,10 +139,10 @@ public final class SplitPayment implements PaymentObserver {
      */
     private double getPayAmountFor(final int index) {
         if (type.equals("equal")) {
-            return amounts.getFirst();
+            return amounts[0];
         }
 
-        return amounts.get(index);
+        return amounts[index];
     }
 
     /**
@@ -140,7 +150,11 @@ public final class SplitPayment implements PaymentObserver {
      * This class follows the builder pattern to ensure immutable creation of SplitPayment objects.
      */
     public static final class SplitPaymentBuilder {
-        private final List<Double> amounts;
+        private static final int INITIAL_AMOUNTS = 4;
+
+        private final Bank bank;
+        private double[] amounts;
+        private int noAmounts;
         private final List<User> users;
         private final List<String> ibans;
         @Setter
@@ -155,9 +169,13 @@ public final class SplitPayment implements PaymentObserver {
         /**
          * Initializes an empty SplitPaymentBuilder instance.
          * Lists for amounts, users, and IBANs are initialized to empty collections.
+         *
+         * @param bank the bank the payment is made in, used for the conversions.
          */
-        public SplitPaymentBuilder() {
-            amounts = new ArrayList<>();
+        public SplitPaymentBuilder(final Bank bank) {
+            this.bank = bank;
+            amounts = new double[INITIAL_AMOUNTS];
+            noAmounts = 0;
             users = new ArrayList<>();
             ibans = new ArrayList<>();
         }
@@ -168,7 +186,10 @@ public final class SplitPayment implements PaymentObserver {
          * @param amount the amount to be added.
          */
         public void addAmount(final double amount) {
-            amounts.add(amount);
+            if (noAmounts == amounts.length) {
+                amounts = Arrays.copyOf(amounts, noAmounts * 2);
+            }
+            amounts[noAmounts++] = amount;
         }
 
         /**
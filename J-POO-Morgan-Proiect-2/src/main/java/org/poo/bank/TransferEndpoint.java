@@ -0,0 +1,63 @@
+package org.poo.bank;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import org.poo.bank.account.Account;
+import org.poo.bank.commerciante.Commerciante;
+
+/**
+ * What an identifier used in a transfer resolves to: the account with this IBAN, the
+ * commerciant receiving payments at this IBAN, or, for an alias, the endpoint of the IBAN it
+ * stands for. The bank keeps one endpoint per identifier and updates it when accounts are
+ * added or deleted, so both sides of a transfer are resolved with one lookup each.
+ */
+final class TransferEndpoint {
+    private final TransferEndpoint target;
+    @Setter(AccessLevel.PACKAGE)
+    private Account account;
+
+    /**
+     * The commerciant receiving payments at this exact identifier, or {@code null}.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    private Commerciante commerciante;
+
+    private TransferEndpoint(final TransferEndpoint target) {
+        this.target = target;
+    }
+
+    /**
+     * Creates the endpoint of an IBAN, with no account or commerciant yet.
+     *
+     * @return the endpoint.
+     */
+    static TransferEndpoint forIBAN() {
+        return new TransferEndpoint(null);
+    }
+
+    /**
+     * Creates the endpoint of an alias.
+     *
+     * @param target the endpoint of the IBAN the alias stands for.
+     * @return the endpoint.
+     */
+    static TransferEndpoint forAlias(final TransferEndpoint target) {
+        return new TransferEndpoint(target);
+    }
+
+    /**
+     * @return {@code true} if the identifier is an alias.
+     */
+    boolean isAlias() {
+        return target != null;
+    }
+
+    /**
+     * @return the account the identifier resolves to, or {@code null} if there is none.
+     */
+    Account getAccount() {
+        return target == null ? account : target.account;
+    }
+}
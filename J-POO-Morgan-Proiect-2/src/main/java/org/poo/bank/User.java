@@ -1,10 +1,12 @@
 package org.poo.bank;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.Getter;
 import org.poo.bank.account.Account;
+import org.poo.bank.account.AccountLocks;
 import org.poo.bank.card.Card;
 import org.poo.bank.commerciante.Commerciante;
 import org.poo.bank.exception.*;
@@ -14,13 +16,20 @@ import org.poo.bank.plan.PlanStrategy;
 import org.poo.bank.transaction.*;
 import org.poo.fileio.JSONWritable;
 import org.poo.fileio.UserInput;
+import org.poo.utils.CardNumber;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
  * Represents a user in the banking system. Each user has personal information,
  * a collection of bank accounts, and a transaction history. This class provides
  * functionality for managing accounts, cards, and transactions.
+ *
+ * <p>Money movement on the accounts of a user is guarded by the {@link AccountLocks} of the
+ * bank; the history and the plan of the user are guarded by the user's monitor, which may be
+ * taken while holding account locks. The plan is volatile, so it is read without the monitor
+ * by the payments computing their commission.</p>
  */
 public final class User implements JSONWritable {
     private static final double MINIMUM_BALANCE = 30;
@@ -28,6 +37,8 @@ public final class User implements JSONWritable {
     private static final int STUDENT_GOLD_PLAN_COST = 350;
     private static final int SILVER_GOLD_PLAN_COST = 250;
 
+    @Getter
+    private final int id;
     @Getter
     private final String firstName;
     @Getter
@@ -37,18 +48,21 @@ public final class User implements JSONWritable {
     @Getter
     private final String birthDate;
     private final String occupation;
+    private final Bank bank;
     private int transactionsOver300;
 
-    private PlanStrategy plan;
+    private volatile PlanStrategy plan;
     private final Map<String, Account> accountsByIBAN;
 
-    @Getter
-    private final List<Transaction> transactions;
+    private final TransactionHistory transactions;
+    private final TransactionIndex transactionIndex;
 
     private final Queue<SplitPayment> splitPayments;
 
-    public User(final String firstName, final String lastName, final String email,
-                final String birthDate, final String occupation) {
+    public User(final Bank bank, final int id, final String firstName, final String lastName,
+                final String email, final String birthDate, final String occupation) {
+        this.bank = bank;
+        this.id = id;
         this.firstName = firstName;
         this.lastName = lastName;
         this.email = email;
@@ -56,7 +70,8 @@ public final class User implements JSONWritable {
         this.occupation = occupation;
 
         this.accountsByIBAN = new LinkedHashMap<>();
-        this.transactions = new ArrayList<>();
+        this.transactions = new TransactionHistory();
+        this.transactionIndex = new TransactionIndex();
 
         if (occupation.equals("student")) {
             plan = PlanFactory.createPlan("student");
@@ -68,8 +83,8 @@ public final class User implements JSONWritable {
         this.transactionsOver300 = 0;
     }
 
-    public User(final UserInput userInput) {
-        this(userInput.getFirstName(), userInput.getLastName(), userInput.getEmail(),
+    public User(final Bank bank, final int id, final UserInput userInput) {
+        this(bank, id, userInput.getFirstName(), userInput.getLastName(), userInput.getEmail(),
                 userInput.getBirthDate(), userInput.getOccupation());
     }
 
@@ -86,7 +101,7 @@ public final class User implements JSONWritable {
             return;
         }
 
-        transactions.add(new Transaction(timestamp, "New account created", account.getIban()));
+        addTransaction(new Transaction(timestamp, "New account created", account.getIban()));
     }
 
     /**
@@ -151,7 +166,7 @@ public final class User implements JSONWritable {
         }
 
         final Card card = oneTime ? account.createOneTimeCard() : account.createCard();
-        transactions.add(new CardOperationTransaction(timestamp, "New card created",
+        addTransaction(new CardOperationTransaction(timestamp, "New card created",
                 email, iban, card.getCardNumber()));
     }
 
@@ -162,39 +177,54 @@ public final class User implements JSONWritable {
      * @param timestamp  the timestamp of card removal
      */
     public void removeCard(final String cardNumber, final int timestamp) {
-        for (final Account account : accountsByIBAN.values()) {
-            Card card = account.getCard(cardNumber);
-            if (card != null) {
-                account.removeCard(cardNumber);
-                transactions.add(new CardOperationTransaction(timestamp,
-                        "The card has been destroyed", email, account.getIban(), cardNumber));
-                return;
-            }
+        final CardNumber number = CardNumber.parse(cardNumber);
+        final Account account = findAccountWithCard(number);
+        if (account != null) {
+            account.removeCard(number);
+            addTransaction(new CardOperationTransaction(timestamp,
+                    "The card has been destroyed", email, account.getIban(), cardNumber));
         }
     }
 
+    /**
+     * Tells whether the given account is one of the accounts of this user, either owned
+     * or shared with the user as a business associate.
+     *
+     * @param account the account
+     * @return {@code true} if the user holds the account
+     */
+    public boolean holdsAccount(final Account account) {
+        return accountsByIBAN.get(account.getIban()) == account;
+    }
+
     /**
      * Handles an online payment using a specified card and records the transaction.
      * Throws an exception if the card is not found.
      *
      * @param cardNumber   the card number used for payment
      * @param amount       the amount to be paid
-     * @param currency     the currency of the payment
+     * @param currencyId   the id of the currency of the payment
      * @param timestamp    the timestamp of the payment
      * @param commerciante the merchant receiving the payment
      * @throws CardNotFoundException if the card cannot be found
      */
-    public void payOnline(final String cardNumber, final double amount, final String currency,
+    public void payOnline(final String cardNumber, final double amount, final int currencyId,
                           final int timestamp, final Commerciante commerciante)
             throws CardNotFoundException {
-        final Account account = findAccountWithCard(cardNumber);
+        final CardNumber number = CardNumber.parse(cardNumber);
+        final Account account = findAccountWithCard(number);
         if (account == null) {
             throw new CardNotFoundException();
         }
 
-        try {
-            account.pay(this, account.getCard(cardNumber), amount,
-                    currency, timestamp, commerciante);
+        try (AccountLocks.Held held = bank.getAccountLocks().lock(account)) {
+            // the card may have been replaced since it was looked up
+            final Card card = account.getCard(number);
+            if (card == null) {
+                throw new CardNotFoundException();
+            }
+
+            account.pay(this, card, amount, currencyId, timestamp, commerciante);
         } catch (InsufficientFundsException | CardFrozenException e) {
             addTransaction(new Transaction(timestamp, e.getMessage(), account.getIban()));
         }
@@ -205,7 +235,7 @@ public final class User implements JSONWritable {
      * The method performs fund transfer, handles currency conversion (if necessary),
      * and logs the transaction details for both the sender and receiver.
      *
-     * @param senderIBAN      The IBAN of the sender's account.
+     * @param senderAccount   The sender's account.
      * @param receiverUser    The recipient user (if applicable).
      * @param receiverAccount The recipient's account (can be null for external transfers).
      * @param commerciante    The merchant involved in the transaction (if applicable).
@@ -214,11 +244,11 @@ public final class User implements JSONWritable {
      * @param timestamp       The timestamp of the transaction.
      * @param description     A description of the transaction.
      */
-    public void sendMoney(final String senderIBAN, final User receiverUser,
+    public void sendMoney(final Account senderAccount, final User receiverUser,
                           final Account receiverAccount, final Commerciante commerciante,
                           final String receiverIBAN, final double amount, final int timestamp,
                           final String description) {
-        final Account senderAccount = accountsByIBAN.get(senderIBAN);
+        final String senderIBAN = senderAccount.getIban();
 
         try {
             senderAccount.sendFunds(this, receiverAccount, commerciante, amount, timestamp);
@@ -231,9 +261,8 @@ public final class User implements JSONWritable {
         String receiverCurrency = senderAccount.getCurrency();
         if (receiverAccount != null) {
             if (!senderAccount.getCurrency().equals(receiverAccount.getCurrency())) {
-                receiverAmount = Bank.getInstance().convertCurrency(amount,
-                        senderAccount.getCurrency(),
-                        receiverAccount.getCurrency());
+                receiverAmount = bank.convertCurrency(amount,
+                        senderAccount.getCurrencyId(), receiverAccount.getCurrencyId());
             }
 
             receiverCurrency = receiverAccount.getCurrency();
@@ -269,13 +298,13 @@ public final class User implements JSONWritable {
             return;
         }
 
-        Optional<Double> minBalance = account.getMinBalance();
+        OptionalDouble minBalance = account.getMinBalance();
 
         if (minBalance.isEmpty()) {
             return;
         }
 
-        double min = minBalance.get();
+        double min = minBalance.getAsDouble();
         if (balance <= min) {
             addTransaction(new Transaction(timestamp, "Card is frozen", account.getIban()));
             card.setStatus("frozen");
@@ -325,6 +354,17 @@ public final class User implements JSONWritable {
      * @param timestamp the timestamp of the upgrade transaction.
      */
     public void upgradePlan(final String iban, final String planType, final int timestamp) {
+        final Account account = accountsByIBAN.get(iban);
+        // the spending of every account is reset, so every account is locked
+        try (AccountLocks.Held held = bank.getAccountLocks().lockAll(accountsByIBAN.values())) {
+            synchronized (this) {
+                upgradePlan(account, iban, planType, timestamp);
+            }
+        }
+    }
+
+    private void upgradePlan(final Account account, final String iban, final String planType,
+                             final int timestamp) {
         final String currentPlan = getPlanName();
         if (planType.equals(currentPlan)) {
             addTransaction(new Transaction(timestamp,
@@ -345,10 +385,9 @@ public final class User implements JSONWritable {
             default:
                 break;
         }
-        final Account account = accountsByIBAN.get(iban);
         double amount = calculateUpgradeCost(planType);
 
-        amount = Bank.getInstance().convertCurrency(amount, "RON", account.getCurrency());
+        amount = bank.convertCurrency(amount, bank.getRonId(), account.getCurrencyId());
 
         if (account.getBalance() < amount) {
             addTransaction(new Transaction(timestamp, "Insufficient funds", iban));
@@ -360,7 +399,7 @@ public final class User implements JSONWritable {
         addTransaction(new UpgradePlanTransaction(timestamp, iban, planType));
 
         for (final Account acc : accountsByIBAN.values()) {
-            acc.setSpending(0.0);
+            acc.resetSpending();
         }
     }
 
@@ -393,13 +432,19 @@ public final class User implements JSONWritable {
      */
     public void cashWithdrawal(final String cardNumber, final double amount, final int timestamp)
             throws CardNotFoundException, CardFrozenException {
-        final Account account = findAccountWithCard(cardNumber);
+        final CardNumber number = CardNumber.parse(cardNumber);
+        final Account account = findAccountWithCard(number);
         if (account == null) {
             throw new CardNotFoundException();
         }
 
-        try {
-            account.cashWithdrawal(this, account.getCard(cardNumber), amount, timestamp);
+        try (AccountLocks.Held held = bank.getAccountLocks().lock(account)) {
+            final Card card = account.getCard(number);
+            if (card == null) {
+                throw new CardNotFoundException();
+            }
+
+            account.cashWithdrawal(this, card, amount, timestamp);
         } catch (final InsufficientFundsException e) {
             addTransaction(new Transaction(timestamp, e.getMessage(), account.getIban()));
         }
@@ -407,21 +452,20 @@ public final class User implements JSONWritable {
 
     /**
      * Finds and returns the account associated with a specified card number.
-     * Iterates through the user's accounts to locate the account holding the card.
+     * The account is looked up in the card index of the bank, then checked to be
+     * one of the user's accounts.
      *
-     * @param cardNumber the number of the card to locate.
+     * @param cardNumber the number of the card to locate, {@code null} if it is not valid.
      * @return the {@link Account} that contains the card, or {@code null} if
-     * no account holds the card.
+     * none of the user's accounts holds the card.
      */
-    private Account findAccountWithCard(final String cardNumber) {
-        for (final Account account : accountsByIBAN.values()) {
-            final Card card = account.getCard(cardNumber);
-            if (card != null) {
-                return account;
-            }
+    private Account findAccountWithCard(final CardNumber cardNumber) {
+        final Account account = bank.getCardIndex().getAccount(cardNumber);
+        if (account == null || !holdsAccount(account)) {
+            return null;
         }
 
-        return null;
+        return account;
     }
 
     /**
@@ -488,16 +532,52 @@ public final class User implements JSONWritable {
     }
 
     /**
-     * Adds a transaction to the user's transaction history.
+     * Adds a transaction to the user's transaction history. The history is kept sorted by
+     * timestamp; a transaction is placed after every transaction with the same timestamp.
      *
      * @param transaction the transaction to be added
      */
-    public void addTransaction(final Transaction transaction) {
+    public synchronized void addTransaction(final Transaction transaction) {
         transactions.add(transaction);
+        transactionIndex.add(transaction);
+    }
+
+    /**
+     * Returns the transaction history of the user, sorted by timestamp. Transactions with the
+     * same timestamp are in the order they were added. The list is a read-only view of the
+     * history taken without the user's monitor, which does not change when other threads add
+     * transactions.
+     *
+     * @return the transactions of the user
+     */
+    public List<Transaction> getTransactions() {
+        return transactions.view();
+    }
+
+    /**
+     * Retrieves the transactions of the user involving an account, in a time interval.
+     *
+     * @param iban           the IBAN of the account
+     * @param startTimestamp the first timestamp of the interval
+     * @param endTimestamp   the last timestamp of the interval
+     * @return the transactions, in the order they were added
+     */
+    public synchronized List<Transaction> getTransactions(final String iban,
+                                                          final int startTimestamp,
+                                                          final int endTimestamp) {
+        return transactionIndex.find(iban, startTimestamp, endTimestamp);
     }
 
 
-    public void increaseTransactionsOver300(final String iban, final int timestamp) {
+    /**
+     * Counts a payment of at least 300 RON, upgrading a silver plan to gold after five of them.
+     * It is called while holding the lock of the paying account only, so the spending of the
+     * other accounts is reset atomically instead of under their locks.
+     *
+     * @param iban      the IBAN of the paying account.
+     * @param timestamp the timestamp of the payment.
+     */
+    public synchronized void increaseTransactionsOver300(final String iban, final int timestamp) {
         if (getPlanName().equals("gold")) {
             return;
         }
@@ -506,8 +586,8 @@ public final class User implements JSONWritable {
         if (transactionsOver300 >= 5 && getPlanName().equals("silver")) {
             plan = new GoldStrategy();
             for (final Account acc : accountsByIBAN.values()) {
-                if (acc.getOwner().equals(email)) {
-                    acc.setSpending(0.0);
+                if (acc.getOwnerId() == id) {
+                    acc.resetSpending();
                 }
             }
 
@@ -525,7 +605,7 @@ public final class User implements JSONWritable {
 
         ArrayNode accountArray = result.putArray("accounts");
         for (final Account account : accountsByIBAN.values()) {
-            if (!account.getOwner().equals(email)) {
+            if (account.getOwnerId() != id) {
                 continue;
             }
 
@@ -534,4 +614,25 @@ public final class User implements JSONWritable {
 
         return result;
     }
+
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+
+        generator.writeStringField("firstName", firstName);
+        generator.writeStringField("lastName", lastName);
+        generator.writeStringField("email", email);
+
+        generator.writeArrayFieldStart("accounts");
+        for (final Account account : accountsByIBAN.values()) {
+            if (account.getOwnerId() != id) {
+                continue;
+            }
+
+            account.writeTo(generator);
+        }
+        generator.writeEndArray();
+
+        generator.writeEndObject();
+    }
 }
@@ -1,8 +1,10 @@
 package org.poo.bank.account;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.poo.bank.Bank;
@@ -16,48 +18,88 @@ import org.poo.bank.exception.CardFrozenException;
 import org.poo.bank.exception.InsufficientFundsException;
 import org.poo.bank.exception.NotAuthorizedException;
 import org.poo.bank.exception.NotSavingsAccountException;
+import org.poo.bank.exchange.ExchangeRates;
 import org.poo.bank.transaction.CardOperationTransaction;
 import org.poo.bank.transaction.CashWithdrawTransaction;
 import org.poo.bank.transaction.OnlinePaymentTransaction;
 import org.poo.fileio.JSONWritable;
-import org.poo.utils.Utils;
+import org.poo.utils.CardNumber;
+import org.poo.utils.Iban;
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.*;
 
 
 /**
  * Abstract class representing a bank account.
  * Manages funds, cards, and operations such as payments, transfers, and balance adjustments.
+ *
+ * <p>The cards and counters of an account are guarded by its lock in the
+ * {@link AccountLocks} of the bank. The operations taking money out of an account expect the
+ * caller to hold the locks of every account involved. The balance itself is only updated
+ * with compare-and-set, so money can be added to an account without taking its lock, while
+ * other threads pay from it; a debit checks the funds and updates the balance in one atomic
+ * step, retrying if the balance changed in between.</p>
  */
 @Getter
 public abstract class Account implements JSONWritable {
+    @Getter(AccessLevel.NONE)
+    protected final Bank bank;
+    protected final Iban packedIban;
     protected final String iban;
     protected final String currency;
+    protected int currencyId;
     protected final String owner;
+    protected int id;
+    protected int ownerId;
 
-    protected Double balance;
-    protected Optional<Double> minBalance;
+    protected volatile double balance;
+    protected OptionalDouble minBalance;
 
     @Setter
-    protected Map<String, Card> cardsByNumber;
+    protected Map<CardNumber, Card> cardsByNumber;
 
     protected final Map<String, Cashback> cashbacks;
     protected final Set<String> receivedCashbacks;
 
-    @Setter
-    protected double spending;
+    /**
+     * The amount spent at commerciants with a spending threshold cashback, updated atomically
+     * like the balance, since plan upgrades reset it without holding the lock of the account.
+     */
+    protected volatile double spending;
 
     @Setter
     protected int noTransactions;
 
-    public Account(final String currency, final String owner) {
-        this.iban = Utils.generateIBAN();
+    private static final VarHandle BALANCE;
+    private static final VarHandle SPENDING;
+
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(Account.class, "balance",
+                    double.class);
+            SPENDING = MethodHandles.lookup().findVarHandle(Account.class, "spending",
+                    double.class);
+        } catch (final ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public Account(final Bank bank, final String currency, final String owner) {
+        this.bank = bank;
+        this.packedIban = bank.getNumberGenerator().nextIBAN();
+        this.iban = packedIban.toString();
         this.currency = currency;
+        this.currencyId = bank.getCurrencyId(currency);
         this.owner = owner;
+        this.id = -1;
+        this.ownerId = -1;
 
         this.balance = 0.0;
         this.cardsByNumber = new LinkedHashMap<>();
-        this.minBalance = Optional.empty();
+        this.minBalance = OptionalDouble.empty();
 
         this.cashbacks = new HashMap<>();
         this.receivedCashbacks = new HashSet<>();
@@ -65,14 +107,41 @@ public abstract class Account implements JSONWritable {
         this.spending = 0;
     }
 
+
+    /**
+     * Returns the id of the currency of the account, used for conversions. A currency the bank
+     * had no rate for when the account was created is resolved again once rates for it exist.
+     *
+     * @return the id of the currency, or {@code -1} if the bank has no rate for it.
+     */
+    public int getCurrencyId() {
+        if (currencyId < 0) {
+            currencyId = bank.getCurrencyId(currency);
+        }
+
+        return currencyId;
+    }
+
+    /**
+     * Records the ids the bank assigned to this account and to its owner when the account was
+     * added to the bank.
+     *
+     * @param accountId   the id of the account.
+     * @param ownerUserId the id of the owner.
+     */
+    public void register(final int accountId, final int ownerUserId) {
+        this.id = accountId;
+        this.ownerId = ownerUserId;
+    }
+
     /**
      * Creates a new {@link ClassicCard} and associates it with this account.
      *
      * @return the newly created card.
      */
     public Card createCard() {
-        final Card card = new ClassicCard();
-        cardsByNumber.put(card.getCardNumber(), card);
+        final Card card = new ClassicCard(bank.getNumberGenerator().nextCardNumber());
+        addCard(card);
 
         return card;
     }
@@ -83,8 +152,10 @@ public abstract class Account implements JSONWritable {
      * @param cardNumber the card number.
      * @return the {@link Card} associated with the card number, or {@code null} if not found.
      */
-    public Card getCard(final String cardNumber) {
-        return cardsByNumber.get(cardNumber);
+    public Card getCard(final CardNumber cardNumber) {
+        try (AccountLocks.Held held = bank.getAccountLocks().lock(this)) {
+            return cardsByNumber.get(cardNumber);
+        }
     }
 
 
@@ -93,8 +164,12 @@ public abstract class Account implements JSONWritable {
      *
      * @param cardNumber the card number to remove.
      */
-    public void removeCard(final String cardNumber) {
-        cardsByNumber.remove(cardNumber);
+    public void removeCard(final CardNumber cardNumber) {
+        try (AccountLocks.Held held = bank.getAccountLocks().lock(this)) {
+            if (cardsByNumber.remove(cardNumber) != null) {
+                bank.getCardIndex().remove(cardNumber);
+            }
+        }
     }
 
     /**
@@ -103,12 +178,19 @@ public abstract class Account implements JSONWritable {
      * @return the newly created one-time payment card.
      */
     public Card createOneTimeCard() {
-        final Card card = new OneTimePayCard();
-        cardsByNumber.put(card.getCardNumber(), card);
+        final Card card = new OneTimePayCard(bank.getNumberGenerator().nextCardNumber());
+        addCard(card);
 
         return card;
     }
 
+    private void addCard(final Card card) {
+        try (AccountLocks.Held held = bank.getAccountLocks().lock(this)) {
+            cardsByNumber.put(card.getNumber(), card);
+            bank.getCardIndex().add(this, card);
+        }
+    }
+
 
     /**
      * Adds funds to the specified user's account.
@@ -142,7 +224,32 @@ public abstract class Account implements JSONWritable {
      * @param amount The amount to add to the balance. Must be greater than 0.
      */
     public void increaseBalance(final double amount) {
-        balance += amount;
+        double current;
+        do {
+            current = balance;
+        } while (!BALANCE.compareAndSet(this, current, current + amount));
+    }
+
+    /**
+     * Adds an amount to the spending of the account.
+     *
+     * @param amount the amount spent.
+     * @return the spending of the account, including the amount.
+     */
+    public double addSpending(final double amount) {
+        double current;
+        do {
+            current = spending;
+        } while (!SPENDING.compareAndSet(this, current, current + amount));
+
+        return current + amount;
+    }
+
+    /**
+     * Resets the spending of the account, when the plan of its owner changes.
+     */
+    public void resetSpending() {
+        spending = 0.0;
     }
 
     /**
@@ -152,7 +259,40 @@ public abstract class Account implements JSONWritable {
      *               Ensure the resulting balance does not go below allowed limits.
      */
     public void decreaseBalance(final double amount) {
-        balance -= amount;
+        double current;
+        do {
+            current = balance;
+        } while (!BALANCE.compareAndSet(this, current, current - amount));
+    }
+
+    /**
+     * Sets the balance to a new value if it still has the expected value, for the updates
+     * computed from the current balance.
+     *
+     * @param expected the balance the update was computed from.
+     * @param updated  the new balance.
+     * @return {@code true} if the balance was set, {@code false} if it changed in between.
+     */
+    protected boolean compareAndSetBalance(final double expected, final double updated) {
+        return BALANCE.compareAndSet(this, expected, updated);
+    }
+
+    /**
+     * Decreases the balance by the specified amount if the balance covers it.
+     *
+     * @param amount The amount to subtract from the balance.
+     * @return {@code true} if the balance was decreased, {@code false} if it is too low.
+     */
+    public boolean tryDecreaseBalance(final double amount) {
+        double current;
+        do {
+            current = balance;
+            if (current < amount) {
+                return false;
+            }
+        } while (!BALANCE.compareAndSet(this, current, current - amount));
+
+        return true;
     }
 
     /**
@@ -184,26 +324,27 @@ public abstract class Account implements JSONWritable {
                           final double amount,
                           final int timestamp)
             throws InsufficientFundsException {
+        final ExchangeRates rates = bank.getExchangeRates();
+        final int ron = bank.getRonId();
+
         double amountToGet = amount;
         if (receiver != null) {
             if (!currency.equals(receiver.getCurrency())) {
-                amountToGet = Bank.getInstance()
-                        .convertCurrency(amount,
-                                this.currency,
-                                receiver.getCurrency());
+                amountToGet = rates.convert(amount, getCurrencyId(), receiver.getCurrencyId());
             }
         }
 
-        final double amountInRON = Bank.getInstance().convertCurrency(amount, currency, "RON");
+        final double amountInRON = rates.convert(amount, getCurrencyId(), ron);
 
-        final User ownerUser = Bank.getInstance().getUserByEmail(getOwner());
+        final User ownerUser = bank.getUser(ownerId);
 
-        double amountToSubstract = amount + Bank.getInstance()
-                .convertCurrency(ownerUser.getCommission(amountInRON), "RON", currency);
+        double amountToSubstract = amount
+                + rates.convert(ownerUser.getCommission(amountInRON), ron, getCurrencyId());
         if (balance - amountToSubstract < 0.0) {
             throw new InsufficientFundsException();
         }
 
+        double amountToAdd = 0.0;
         if (commerciante != null) {
             final Cashback cashback = cashbacks.get(commerciante.getType());
             double amountToCashback = 0.0;
@@ -214,14 +355,23 @@ public abstract class Account implements JSONWritable {
 
             amountToCashback += commerciante.getCashback(this, ownerUser.getPlanName(),
                     amountInRON);
-            final double amountToAdd = Bank.getInstance().convertCurrency(amountToCashback,
-                    "RON", currency);
-            balance += amountToAdd;
+            amountToAdd = rates.convert(amountToCashback, ron, getCurrencyId());
         }
 
-        balance -= amountToSubstract;
+        // the cashback is added before the amount is taken, as the balance was always updated
+        double current;
+        double updated;
+        do {
+            current = balance;
+            if (current - amountToSubstract < 0.0) {
+                throw new InsufficientFundsException();
+            }
+            updated = commerciante != null ? current + amountToAdd : current;
+            updated -= amountToSubstract;
+        } while (!BALANCE.compareAndSet(this, current, updated));
+
         if (receiver != null) {
-            receiver.balance += amountToGet;
+            receiver.increaseBalance(amountToGet);
         }
 
         if (amountInRON >= 300) {
@@ -237,52 +387,39 @@ public abstract class Account implements JSONWritable {
      * @param user          the user making the payment.
      * @param card          the card used for payment.
      * @param amount        the amount to pay.
-     * @param otherCurrency the currency of the payment.
+     * @param otherCurrencyId the id of the currency of the payment.
      * @param timestamp     the timestamp of the payment.
      * @param commerciante  the merchant receiving the payment.
      * @throws InsufficientFundsException if there are insufficient funds.
      * @throws CardFrozenException        if the card is frozen.
      */
     public void pay(final User user, final Card card,
-                    final double amount, final String otherCurrency,
+                    final double amount, final int otherCurrencyId,
                     final int timestamp, final Commerciante commerciante)
             throws InsufficientFundsException, CardFrozenException {
         if (card.getStatus().equals("frozen")) {
             throw new CardFrozenException("The card is frozen");
         }
 
-        double amountToPay = Bank.getInstance().convertCurrency(amount, otherCurrency, currency);
-        final double amountInRON = Bank.getInstance().convertCurrency(amountToPay, currency, "RON");
-
-        final User owner = Bank.getInstance().getUserByEmail(getOwner());
+        final ExchangeRates rates = bank.getExchangeRates();
+        final int ron = bank.getRonId();
 
-        final double amountToSubstract = amountToPay + Bank.getInstance()
-                .convertCurrency(owner.getCommission(amountInRON), "RON", currency);
+        double amountToPay = rates.convert(amount, otherCurrencyId, getCurrencyId());
+        final double amountInRON = rates.convert(amountToPay, getCurrencyId(), ron);
 
-        if (balance - amountToSubstract < 0) {
-            throw new InsufficientFundsException();
-        }
+        final User owner = bank.getUser(ownerId);
 
-        if (minBalance.isPresent()) {
-            final double afterBalance = balance - amountToSubstract;
+        final double amountToSubstract = amountToPay
+                + rates.convert(owner.getCommission(amountInRON), ron, getCurrencyId());
 
-            if (Math.abs(afterBalance - minBalance.get()) <= 30) {
-                card.setStatus("frozen");
-                throw new CardFrozenException("You have reached the minimum amount of funds,"
-                        + " the card will be frozen");
-            } else if (afterBalance <= minBalance.get()) {
-                card.setStatus("frozen");
-                throw new CardFrozenException("Card is frozen");
-            }
-        }
+        checkFunds(card, balance, amountToSubstract);
 
         final boolean can = removeFunds(amountToPay, user, timestamp, commerciante.getName());
         if (!can) {
             return;
         }
 
-        balance -= amountToSubstract;
-
+        double amountToAdd = 0.0;
         if (commerciante != null) {
             final Cashback cashback = cashbacks.get(commerciante.getType());
             double amountToCashback = 0.0;
@@ -292,11 +429,21 @@ public abstract class Account implements JSONWritable {
             }
 
             amountToCashback += commerciante.getCashback(this, owner.getPlanName(), amountInRON);
-            final double amountToAdd = Bank.getInstance().convertCurrency(amountToCashback,
-                    "RON", currency);
-            balance += amountToAdd;
+            amountToAdd = rates.convert(amountToCashback, ron, getCurrencyId());
         }
 
+        // money added since the check is fine, the checks are repeated on the latest balance
+        double current;
+        double updated;
+        do {
+            current = balance;
+            checkFunds(card, current, amountToSubstract);
+            updated = current - amountToSubstract;
+            if (commerciante != null) {
+                updated += amountToAdd;
+            }
+        } while (!BALANCE.compareAndSet(this, current, updated));
+
         user.addTransaction(new OnlinePaymentTransaction(timestamp,
                 amountToPay, commerciante.getName(), iban));
 
@@ -304,7 +451,7 @@ public abstract class Account implements JSONWritable {
             user.addTransaction(new CardOperationTransaction(timestamp,
                     "The card has been destroyed",
                     user.getEmail(), iban, card.getCardNumber()));
-            removeCard(card.getCardNumber());
+            removeCard(card.getNumber());
             final Card newCard = createOneTimeCard();
 
             user.addTransaction(new CardOperationTransaction(timestamp,
@@ -317,6 +464,31 @@ public abstract class Account implements JSONWritable {
         }
     }
 
+    /**
+     * Checks that a payment can be taken from the given balance, freezing the card if the
+     * payment would take the balance to the minimum balance of the account.
+     */
+    private void checkFunds(final Card card, final double current,
+                            final double amountToSubstract)
+            throws InsufficientFundsException, CardFrozenException {
+        if (current - amountToSubstract < 0) {
+            throw new InsufficientFundsException();
+        }
+
+        if (minBalance.isPresent()) {
+            final double afterBalance = current - amountToSubstract;
+
+            if (Math.abs(afterBalance - minBalance.getAsDouble()) <= 30) {
+                card.setStatus("frozen");
+                throw new CardFrozenException("You have reached the minimum amount of funds,"
+                        + " the card will be frozen");
+            } else if (afterBalance <= minBalance.getAsDouble()) {
+                card.setStatus("frozen");
+                throw new CardFrozenException("Card is frozen");
+            }
+        }
+    }
+
     /**
      * Performs a cash withdrawal from the account using the specified card.
      * Converts the withdrawal amount to the account's currency (if needed),
@@ -337,20 +509,24 @@ public abstract class Account implements JSONWritable {
                                final int timestamp) throws InsufficientFundsException,
             CardFrozenException {
 
-        final User ownerUser = Bank.getInstance().getUserByEmail(getOwner());
+        final ExchangeRates rates = bank.getExchangeRates();
+        final int ron = bank.getRonId();
+        final User ownerUser = bank.getUser(ownerId);
 
-        double withdrawAmount = Bank.getInstance().convertCurrency(amount, "RON", currency);
-        withdrawAmount += Bank.getInstance().convertCurrency(ownerUser.getCommission(amount),
-                "RON", currency);
+        double withdrawAmount = rates.convert(amount, ron, getCurrencyId());
+        withdrawAmount += rates.convert(ownerUser.getCommission(amount), ron, getCurrencyId());
 
-        if (balance < withdrawAmount) {
-            throw new InsufficientFundsException();
-        }
+        double current;
+        do {
+            current = balance;
+            if (current < withdrawAmount) {
+                throw new InsufficientFundsException();
+            }
 
-        if (card.getStatus().equals("frozen")) {
-            throw new CardFrozenException("The card is frozen");
-        }
-        balance -= withdrawAmount;
+            if (card.getStatus().equals("frozen")) {
+                throw new CardFrozenException("The card is frozen");
+            }
+        } while (!BALANCE.compareAndSet(this, current, current - withdrawAmount));
 
         user.addTransaction(new CashWithdrawTransaction(timestamp, iban, amount));
     }
@@ -376,17 +552,21 @@ public abstract class Account implements JSONWritable {
      * @param currency The currency in which the amount is provided.
      */
     public void splitPay(final double amount, final String currency) {
-        double payAmount = Bank.getInstance().convertCurrency(amount, currency, this.currency);
-        balance -= payAmount;
+        final ExchangeRates rates = bank.getExchangeRates();
+        double payAmount = rates.convert(amount, rates.getId(currency), getCurrencyId());
+        decreaseBalance(payAmount);
     }
 
     /**
-     * Sets a minimum balance for the account.
+     * Sets a minimum balance for the account, under the lock of the account, since payments
+     * check it under that lock.
      *
      * @param amount the minimum balance.
      */
     public void setMinBalance(final double amount) {
-        minBalance = Optional.of(amount);
+        try (AccountLocks.Held held = bank.getAccountLocks().lock(this)) {
+            minBalance = OptionalDouble.of(amount);
+        }
     }
 
     /**
@@ -411,6 +591,38 @@ public abstract class Account implements JSONWritable {
         return result;
     }
 
+    /**
+     * Writes this account's data as a JSON object to the given generator.
+     *
+     * @param generator the Jackson {@link JsonGenerator} the account is written to.
+     * @throws IOException if the account cannot be written.
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeFields(generator);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the properties of this account, in the order used by
+     * {@link #toObjectNode(ObjectMapper)}. Subclasses append their own properties.
+     *
+     * @param generator the Jackson {@link JsonGenerator} the properties are written to.
+     * @throws IOException if the properties cannot be written.
+     */
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        generator.writeStringField("IBAN", iban);
+        generator.writeNumberField("balance", balance);
+        generator.writeStringField("currency", currency);
+
+        generator.writeArrayFieldStart("cards");
+        for (final Card card : cardsByNumber.values()) {
+            card.writeTo(generator);
+        }
+        generator.writeEndArray();
+    }
+
 
     /**
      * Abstract method to set the interest rate for this account.
@@ -490,17 +702,17 @@ public abstract class Account implements JSONWritable {
     /**
      * Adds a manager to the account.
      *
-     * @param email The email of the manager to add. Must not be null or empty.
+     * @param user The user to add as a manager.
      */
-    public void addManager(final String email) {
+    public void addManager(final User user) {
     }
 
     /**
      * Adds an employee to the account.
      *
-     * @param email The email of the employee to add. Must not be null or empty.
+     * @param user The user to add as an employee.
      */
-    public void addEmployee(final String email) {
+    public void addEmployee(final User user) {
 
     }
 
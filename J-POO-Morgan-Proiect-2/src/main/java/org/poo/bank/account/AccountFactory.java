@@ -1,5 +1,7 @@
 package org.poo.bank.account;
 
+import org.poo.bank.Bank;
+
 public final class AccountFactory {
 
     private AccountFactory() {
@@ -9,6 +11,7 @@ public final class AccountFactory {
     /**
      * Factory method to create an account based on the specified account type.
      *
+     * @param bank         The bank the account is opened in.
      * @param currency     The currency of the account. Must not be null or empty.
      * @param accountType  The type of the account to create. Must be one of "classic",
      *                    "savings", or "business".
@@ -19,14 +22,15 @@ public final class AccountFactory {
      * @return A newly created {@code Account} object of the specified type.
      * @throws IllegalStateException If the {@code accountType} is not recognized.
      */
-    public static Account createAccount(final String currency,
+    public static Account createAccount(final Bank bank,
+                                        final String currency,
                                         final String accountType,
                                         final double interestRate,
                                         final String owner) {
         return switch (accountType) {
-            case "classic" -> new ClassicAccount(currency, owner);
-            case "savings" -> new SavingsAccount(currency, owner, interestRate);
-            case "business" -> new BusinessAccount(currency, owner);
+            case "classic" -> new ClassicAccount(bank, currency, owner);
+            case "savings" -> new SavingsAccount(bank, currency, owner, interestRate);
+            case "business" -> new BusinessAccount(bank, currency, owner);
             default -> throw new IllegalStateException("Unexpected value: " + accountType);
         };
     }
@@ -0,0 +1,135 @@
+package org.poo.bank.account;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks guarding the balances, cards and counters of the accounts of a bank. Every
+ * account maps to one of a fixed number of locks by its id, so the number of locks does not
+ * grow with the number of accounts. Operations touching several accounts take their locks in
+ * ascending stripe order, so two such operations never wait for each other.
+ *
+ * <p>The locks are reentrant, so an operation holding the lock of an account may call other
+ * operations locking the same account. The monitor of a {@link org.poo.bank.User} may be
+ * taken while holding account locks, never the other way around.</p>
+ */
+public final class AccountLocks {
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    /**
+     * Locks that are held until closed, meant for try-with-resources.
+     */
+    @FunctionalInterface
+    public interface Held extends AutoCloseable {
+        /**
+         * Releases the locks.
+         */
+        @Override
+        void close();
+    }
+
+    public AccountLocks() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Creates the locks.
+     *
+     * @param minStripes the minimum number of locks, rounded up to a power of two.
+     */
+    public AccountLocks(final int minStripes) {
+        if (minStripes <= 0) {
+            throw new IllegalArgumentException("Invalid number of stripes: " + minStripes);
+        }
+
+        int size = 1;
+        while (size < minStripes) {
+            size <<= 1;
+        }
+
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Locks one account.
+     *
+     * @param account the account.
+     * @return the held lock.
+     */
+    public Held lock(final Account account) {
+        final ReentrantLock lock = stripes[stripeOf(account)];
+        lock.lock();
+        return lock::unlock;
+    }
+
+    /**
+     * Locks the two accounts of a transfer.
+     *
+     * @param first  the first account.
+     * @param second the second account, or {@code null} if there is only one account.
+     * @return the held locks.
+     */
+    public Held lock(final Account first, final Account second) {
+        if (second == null) {
+            return lock(first);
+        }
+
+        final int firstStripe = stripeOf(first);
+        final int secondStripe = stripeOf(second);
+        if (firstStripe == secondStripe) {
+            return lock(first);
+        }
+
+        return lockStripes(new int[] {Math.min(firstStripe, secondStripe),
+                Math.max(firstStripe, secondStripe)});
+    }
+
+    /**
+     * Locks every account of an operation.
+     *
+     * @param accounts the accounts.
+     * @return the held locks.
+     */
+    public Held lockAll(final Collection<Account> accounts) {
+        final int[] sorted = new int[accounts.size()];
+        int size = 0;
+        for (final Account account : accounts) {
+            sorted[size++] = stripeOf(account);
+        }
+        Arrays.sort(sorted);
+
+        // drop the stripes shared by several accounts
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || sorted[distinct - 1] != sorted[i]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+
+        return lockStripes(Arrays.copyOf(sorted, distinct));
+    }
+
+    private Held lockStripes(final int[] sorted) {
+        for (final int stripe : sorted) {
+            stripes[stripe].lock();
+        }
+
+        return () -> {
+            for (int i = sorted.length - 1; i >= 0; i--) {
+                stripes[sorted[i]].unlock();
+            }
+        };
+    }
+
+    private int stripeOf(final Account account) {
+        return account.getId() & mask;
+    }
+}
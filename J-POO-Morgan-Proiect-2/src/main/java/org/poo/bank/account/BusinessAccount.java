@@ -1,5 +1,6 @@
 package org.poo.bank.account;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.bank.Bank;
@@ -7,7 +8,9 @@ import org.poo.bank.User;
 import org.poo.bank.exception.NotAuthorizedException;
 import org.poo.bank.exception.NotSavingsAccountException;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 public final class BusinessAccount extends Account {
@@ -15,33 +18,45 @@ public final class BusinessAccount extends Account {
     private double depositLimit;
     private final List<String> managers;
     private final List<String> employees;
+    private final BitSet managerIds;
+    private final BitSet employeeIds;
     private final List<TransactionInfo> transactionInfo;
 
-    public BusinessAccount(final String currency, final String owner) {
-        super(currency, owner);
+    public BusinessAccount(final Bank bank, final String currency, final String owner) {
+        super(bank, currency, owner);
 
-        spendingLimit = Bank.getInstance().convertCurrency(500, "RON", currency);
+        spendingLimit = bank.convertCurrency(500, bank.getRonId(), getCurrencyId());
         depositLimit = spendingLimit;
 
         this.managers = new ArrayList<>();
         this.employees = new ArrayList<>();
+        this.managerIds = new BitSet();
+        this.employeeIds = new BitSet();
         this.transactionInfo = new ArrayList<>();
     }
 
     @Override
     public boolean addFunds(final double amount, final User user,
                             final int timestamp) {
+        // the deposit is recorded under the lock, the balance is then credited without it
+        try (AccountLocks.Held held = bank.getAccountLocks().lock(this)) {
+            return recordDeposit(amount, user, timestamp);
+        }
+    }
+
+    private boolean recordDeposit(final double amount, final User user, final int timestamp) {
         final String email = user.getEmail();
+        final int userId = user.getId();
 
-        if (owner.equals(email)) {
+        if (ownerId == userId) {
             return true;
         }
 
-        if (!employees.contains(email) && !managers.contains(email)) {
+        if (!employeeIds.get(userId) && !managerIds.get(userId)) {
             return false;
         }
 
-        if (employees.contains(email)) {
+        if (employeeIds.get(userId)) {
             if (amount > depositLimit) {
                 return false;
             }
@@ -55,16 +70,17 @@ public final class BusinessAccount extends Account {
     public boolean removeFunds(final double amount, final User user,
                                final int timestamp, final String commerciante) {
         final String email = user.getEmail();
+        final int userId = user.getId();
 
-        if (owner.equals(email)) {
+        if (ownerId == userId) {
             return true;
         }
 
-        if (!employees.contains(email) && !managers.contains(email)) {
+        if (!employeeIds.get(userId) && !managerIds.get(userId)) {
             return false;
         }
 
-        if (employees.contains(email)) {
+        if (employeeIds.get(userId)) {
             if (amount > spendingLimit) {
                 return false;
             }
@@ -101,17 +117,29 @@ public final class BusinessAccount extends Account {
 
     @Override
     public Double getSpendingLimit() {
-        return spendingLimit;
+        try (AccountLocks.Held held = bank.getAccountLocks().lock(this)) {
+            return spendingLimit;
+        }
     }
 
     @Override
     public Double getDepostLimit() {
-        return depositLimit;
+        try (AccountLocks.Held held = bank.getAccountLocks().lock(this)) {
+            return depositLimit;
+        }
     }
 
+    /**
+     * Returns a copy of the deposits and payments made by the associates, taken under the lock
+     * of the account, so it can be iterated while other threads add to them.
+     *
+     * @return the transaction information, in the order it was recorded.
+     */
     @Override
     public List<TransactionInfo> getTransasctionInfo() {
-        return transactionInfo;
+        try (AccountLocks.Held held = bank.getAccountLocks().lock(this)) {
+            return List.copyOf(transactionInfo);
+        }
     }
 
     @Override
@@ -121,29 +149,31 @@ public final class BusinessAccount extends Account {
     }
 
     @Override
-    public void addManager(final String email) {
-        if (owner.equals(email)) {
+    public void addManager(final User user) {
+        if (ownerId == user.getId()) {
             return;
         }
 
-        if (employees.contains(email)) {
+        if (employeeIds.get(user.getId())) {
             return;
         }
 
-        managers.add(email);
+        managers.add(user.getEmail());
+        managerIds.set(user.getId());
     }
 
     @Override
-    public void addEmployee(final String email) {
-        if (owner.equals(email)) {
+    public void addEmployee(final User user) {
+        if (ownerId == user.getId()) {
             return;
         }
 
-        if (managers.contains(email)) {
+        if (managerIds.get(user.getId())) {
             return;
         }
 
-        employees.add(email);
+        employees.add(user.getEmail());
+        employeeIds.set(user.getId());
     }
 
     @Override
@@ -153,7 +183,9 @@ public final class BusinessAccount extends Account {
             throw new NotAuthorizedException();
         }
 
-        spendingLimit = limit;
+        try (AccountLocks.Held held = bank.getAccountLocks().lock(this)) {
+            spendingLimit = limit;
+        }
     }
 
     @Override
@@ -163,7 +195,9 @@ public final class BusinessAccount extends Account {
             throw new NotAuthorizedException();
         }
 
-        depositLimit = limit;
+        try (AccountLocks.Held held = bank.getAccountLocks().lock(this)) {
+            depositLimit = limit;
+        }
     }
 
     @Override
@@ -179,4 +213,11 @@ public final class BusinessAccount extends Account {
 
         return result;
     }
+
+    @Override
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        super.writeFields(generator);
+
+        generator.writeStringField("type", "business");
+    }
 }
@@ -1,12 +1,16 @@
 package org.poo.bank.account;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.poo.bank.Bank;
 import org.poo.bank.exception.NotSavingsAccountException;
 
+import java.io.IOException;
+
 public final class ClassicAccount extends Account {
-    public ClassicAccount(final String currency, final String owner) {
-        super(currency, owner);
+    public ClassicAccount(final Bank bank, final String currency, final String owner) {
+        super(bank, currency, owner);
     }
 
     @Override
@@ -18,6 +22,13 @@ public final class ClassicAccount extends Account {
         return result;
     }
 
+    @Override
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        super.writeFields(generator);
+
+        generator.writeStringField("type", "classic");
+    }
+
     @Override
     public void setInterestRate(final double interestRate) throws NotSavingsAccountException {
         throw new NotSavingsAccountException();
@@ -1,14 +1,19 @@
 package org.poo.bank.account;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.poo.bank.Bank;
 import org.poo.bank.exception.NotSavingsAccountException;
 
+import java.io.IOException;
+
 public final class SavingsAccount extends Account {
-    private double interestRate;
+    private volatile double interestRate;
 
-    public SavingsAccount(final String currency, final String owner, final double interestRate) {
-        super(currency, owner);
+    public SavingsAccount(final Bank bank, final String currency, final String owner,
+                          final double interestRate) {
+        super(bank, currency, owner);
         this.interestRate = interestRate;
     }
 
@@ -21,6 +26,13 @@ public final class SavingsAccount extends Account {
         return result;
     }
 
+    @Override
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        super.writeFields(generator);
+
+        generator.writeStringField("type", "savings");
+    }
+
     @Override
     public void setInterestRate(final double interestRate) {
         this.interestRate = interestRate;
@@ -28,8 +40,13 @@ public final class SavingsAccount extends Account {
 
     @Override
     public double addInterest() throws NotSavingsAccountException {
-        final double interest = interestRate * getBalance();
-        balance += interest;
+        double current;
+        double interest;
+        do {
+            current = balance;
+            interest = interestRate * current;
+        } while (!compareAndSetBalance(current, current + interest));
+
         return interest;
     }
 
@@ -1,11 +1,14 @@
 package org.poo.bank.card;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.Getter;
 import lombok.Setter;
 import org.poo.fileio.JSONWritable;
-import org.poo.utils.Utils;
+import org.poo.utils.CardNumber;
+
+import java.io.IOException;
 
 /**
  * Abstract class representing a bank card.
@@ -17,7 +20,7 @@ public abstract class Card implements JSONWritable {
     /**
      * The card number, generated when the card is created.
      */
-    protected final String cardNumber;
+    protected final CardNumber number;
 
     /**
      * Indicates whether the card is a one-time use card.
@@ -29,19 +32,28 @@ public abstract class Card implements JSONWritable {
 
     /**
      * Constructs a new {@link Card} instance with the specified one-time use status.
-     * The card number is generated automatically, and the card's status
-     * is initially set to "active".
+     * The card's status is initially set to "active".
      *
+     * @param number  The card number, generated by the bank issuing the card.
      * @param oneTime A boolean indicating whether this is a one-time use card.
      */
 
-    public Card(final boolean oneTime) {
-        this.cardNumber = Utils.generateCardNumber();
+    public Card(final CardNumber number, final boolean oneTime) {
+        this.number = number;
         this.status = "active";
 
         this.oneTime = oneTime;
     }
 
+    /**
+     * Returns the card number as written in the input and output, 16 decimal digits.
+     *
+     * @return the card number.
+     */
+    public String getCardNumber() {
+        return number.toString();
+    }
+
     /**
      * Converts this {@link Card} instance to a JSON object.
      * The JSON object includes the card number and status as properties.
@@ -53,9 +65,24 @@ public abstract class Card implements JSONWritable {
     public ObjectNode toObjectNode(final ObjectMapper objectMapper) {
         ObjectNode result = objectMapper.createObjectNode();
 
-        result.put("cardNumber", cardNumber);
+        result.put("cardNumber", getCardNumber());
         result.put("status", status);
 
         return result;
     }
+
+    /**
+     * Writes this {@link Card} instance as a JSON object to the given generator.
+     * The written object has the same properties as {@link #toObjectNode(ObjectMapper)}.
+     *
+     * @param generator the {@link JsonGenerator} the card is written to.
+     * @throws IOException if the card cannot be written.
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("cardNumber", getCardNumber());
+        generator.writeStringField("status", status);
+        generator.writeEndObject();
+    }
 }
@@ -0,0 +1,80 @@
+package org.poo.bank.card;
+
+import org.poo.bank.account.Account;
+import org.poo.utils.CardNumber;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of every card of the bank, by card number, pointing to the account holding the card.
+ * Accounts keep it up to date whenever they create or remove a card, so a card is found
+ * without going through the accounts of every user. Cards are keyed by their packed number;
+ * card numbers given as text are parsed once, when looked up. The index may be read and
+ * updated by several threads at once.
+ */
+public final class CardIndex {
+    private final Map<CardNumber, Account> accountsByCardNumber;
+
+    public CardIndex() {
+        this.accountsByCardNumber = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds a card to the index.
+     *
+     * @param account the account holding the card.
+     * @param card    the card.
+     */
+    public void add(final Account account, final Card card) {
+        accountsByCardNumber.put(card.getNumber(), account);
+    }
+
+    /**
+     * Removes a card from the index.
+     *
+     * @param cardNumber the number of the card.
+     */
+    public void remove(final CardNumber cardNumber) {
+        accountsByCardNumber.remove(cardNumber);
+    }
+
+    /**
+     * Removes every card of an account from the index.
+     *
+     * @param account the account.
+     */
+    public void removeAll(final Account account) {
+        for (final CardNumber cardNumber : account.getCardsByNumber().keySet()) {
+            accountsByCardNumber.remove(cardNumber);
+        }
+    }
+
+    /**
+     * Retrieves the account holding a card.
+     *
+     * @param cardNumber the number of the card.
+     * @return the account holding the card, or {@code null} if no account holds it.
+     */
+    public Account getAccount(final CardNumber cardNumber) {
+        return cardNumber == null ? null : accountsByCardNumber.get(cardNumber);
+    }
+
+    /**
+     * Retrieves the account holding a card, given its number as text.
+     *
+     * @param cardNumber the number of the card.
+     * @return the account holding the card, or {@code null} if the number is not a valid card
+     * number or no account holds the card.
+     */
+    public Account getAccount(final String cardNumber) {
+        return getAccount(CardNumber.parse(cardNumber));
+    }
+
+    /**
+     * Removes every card from the index.
+     */
+    public void clear() {
+        accountsByCardNumber.clear();
+    }
+}
@@ -1,7 +1,9 @@
 package org.poo.bank.card;
 
+import org.poo.utils.CardNumber;
+
 public class ClassicCard extends Card {
-    public ClassicCard() {
-        super(false);
+    public ClassicCard(final CardNumber number) {
+        super(number, false);
     }
 }
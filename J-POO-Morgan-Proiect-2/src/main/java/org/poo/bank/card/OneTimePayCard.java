@@ -1,7 +1,9 @@
 package org.poo.bank.card;
 
+import org.poo.utils.CardNumber;
+
 public class OneTimePayCard extends Card {
-    public OneTimePayCard() {
-        super(true);
+    public OneTimePayCard(final CardNumber number) {
+        super(number, true);
     }
 }
@@ -22,8 +22,7 @@ public final class SpendingThresholdStrategy implements CashbackStrategy {
     @Override
     public double getCashback(final Account account, final String planType,
                               final Commerciante commerciante, final double amount) {
-        account.setSpending(account.getSpending() + amount);
-        final double totalSpent = account.getSpending();
+        final double totalSpent = account.addSpending(amount);
 
         if (totalSpent >= SPENDING_THRESHOLD_500) {
             return switch (planType) {
@@ -0,0 +1,275 @@
+package org.poo.bank.exchange;
+
+import org.poo.fileio.ExchangeInput;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The exchange rates between the currencies of the bank. Every currency gets a small id, in
+ * the order the currencies first appear in the input, and the rates are kept in a flat matrix
+ * indexed by these ids, so a conversion between known ids is an array load and a multiply.
+ * Every rate that can be derived is computed when the table is built.
+ *
+ * <p>A table is immutable: {@link #withRate} returns a new table, so a reader holding a table
+ * keeps seeing consistent rates while newer tables are published. Ids never change between a
+ * table and the tables derived from it.</p>
+ */
+public final class ExchangeRates {
+    private final Map<String, Integer> idsByCurrency;
+    private final String[] currencies;
+    private final int size;
+    private final double[] direct;
+    private final double[] rates;
+    private final int[] parents;
+    private final int[] orders;
+    private final List<String> unreachablePairs;
+
+    private ExchangeRates(final Map<String, Integer> idsByCurrency, final String[] currencies,
+                          final double[] direct, final double[] rates, final int[] parents,
+                          final int[] orders, final List<String> unreachablePairs) {
+        this.idsByCurrency = idsByCurrency;
+        this.currencies = currencies;
+        this.size = currencies.length;
+        this.direct = direct;
+        this.rates = rates;
+        this.parents = parents;
+        this.orders = orders;
+        this.unreachablePairs = unreachablePairs;
+    }
+
+    /**
+     * Builds the exchange rates from the given direct rates. The inverse of every rate is added,
+     * then the rate between every two currencies connected through other currencies is derived
+     * along a path with the fewest conversions. Among the shortest paths, the one going through
+     * the intermediate currencies with the smallest ids is chosen. The pairs of currencies that
+     * are not connected at all are collected in {@link #getUnreachablePairs()}.
+     *
+     * @param inputs the direct exchange rates.
+     * @return the exchange rates.
+     */
+    public static ExchangeRates of(final ExchangeInput[] inputs) {
+        final Map<String, Integer> ids = new HashMap<>();
+        for (final ExchangeInput rate : inputs) {
+            ids.putIfAbsent(rate.getFrom(), ids.size());
+            ids.putIfAbsent(rate.getTo(), ids.size());
+        }
+
+        final int size = ids.size();
+        final String[] currencies = new String[size];
+        for (final Map.Entry<String, Integer> entry : ids.entrySet()) {
+            currencies[entry.getValue()] = entry.getKey();
+        }
+
+        // add direct rates, the first rate given for a pair wins over later ones and inverses
+        final double[] direct = new double[size * size];
+        Arrays.fill(direct, Double.NaN);
+        for (final ExchangeInput rate : inputs) {
+            final int from = ids.get(rate.getFrom());
+            final int to = ids.get(rate.getTo());
+            if (Double.isNaN(direct[from * size + to])) {
+                direct[from * size + to] = rate.getRate();
+            }
+            if (Double.isNaN(direct[to * size + from])) {
+                direct[to * size + from] = 1.0 / rate.getRate();
+            }
+        }
+
+        return close(ids, currencies, direct);
+    }
+
+    /**
+     * Returns a table where the direct rate between two currencies is replaced, along with its
+     * inverse. When the two currencies were already directly connected, the paths used for the
+     * derived rates stay the same, so only the rates whose path goes through the updated pair
+     * are recomputed. A new currency or a new connection changes the paths, so the whole table
+     * is derived again.
+     *
+     * @param from the source currency.
+     * @param to   the target currency.
+     * @param rate the new rate, how much one unit of {@code from} is worth in {@code to}.
+     * @return the new table; this table is left unchanged.
+     */
+    public ExchangeRates withRate(final String from, final String to, final double rate) {
+        final int fromId = getId(from);
+        final int toId = getId(to);
+        if (fromId < 0 || toId < 0 || Double.isNaN(direct[fromId * size + toId])) {
+            return withConnection(from, to, rate);
+        }
+
+        final double[] newDirect = direct.clone();
+        newDirect[fromId * size + toId] = rate;
+        newDirect[toId * size + fromId] = 1.0 / rate;
+
+        final double[] newRates = rates.clone();
+        for (int source = 0; source < size; source++) {
+            final int row = source * size;
+            if (parents[row + toId] == fromId || parents[row + fromId] == toId) {
+                deriveRow(source, size, parents, orders, newDirect, newRates);
+            }
+        }
+
+        return new ExchangeRates(idsByCurrency, currencies, newDirect, newRates, parents, orders,
+                unreachablePairs);
+    }
+
+    private ExchangeRates withConnection(final String from, final String to, final double rate) {
+        final Map<String, Integer> ids = new HashMap<>(idsByCurrency);
+        ids.putIfAbsent(from, ids.size());
+        ids.putIfAbsent(to, ids.size());
+
+        final int newSize = ids.size();
+        final String[] newCurrencies = Arrays.copyOf(currencies, newSize);
+        newCurrencies[ids.get(from)] = from;
+        newCurrencies[ids.get(to)] = to;
+
+        final double[] newDirect = new double[newSize * newSize];
+        Arrays.fill(newDirect, Double.NaN);
+        for (int row = 0; row < size; row++) {
+            System.arraycopy(direct, row * size, newDirect, row * newSize, size);
+        }
+
+        final int fromId = ids.get(from);
+        final int toId = ids.get(to);
+        newDirect[fromId * newSize + toId] = rate;
+        newDirect[toId * newSize + fromId] = 1.0 / rate;
+
+        return close(ids, newCurrencies, newDirect);
+    }
+
+    /**
+     * Derives every rate from the direct rates, with a breadth first search from every currency.
+     * The search from a currency records, for every currency it reaches, the currency it was
+     * reached from and the order it was reached in, so the rates can later be derived again
+     * along the same paths.
+     */
+    private static ExchangeRates close(final Map<String, Integer> ids, final String[] currencies,
+                                       final double[] direct) {
+        final int size = currencies.length;
+        final double[] rates = new double[size * size];
+        final int[] parents = new int[size * size];
+        final int[] orders = new int[size * size];
+        Arrays.fill(parents, -1);
+        Arrays.fill(orders, -1);
+
+        for (int source = 0; source < size; source++) {
+            final int row = source * size;
+            int head = 0;
+            int tail = 0;
+            orders[row + tail++] = source;
+            parents[row + source] = source;
+            while (head < tail) {
+                final int current = orders[row + head++];
+                for (int next = 0; next < size; next++) {
+                    if (!Double.isNaN(direct[current * size + next])
+                            && parents[row + next] < 0) {
+                        parents[row + next] = current;
+                        orders[row + tail++] = next;
+                    }
+                }
+            }
+        }
+
+        final List<String> unreachable = new ArrayList<>();
+        for (int source = 0; source < size; source++) {
+            deriveRow(source, size, parents, orders, direct, rates);
+
+            for (int target = 0; target < size; target++) {
+                if (parents[source * size + target] < 0) {
+                    unreachable.add(currencies[source] + " -> " + currencies[target]);
+                }
+            }
+        }
+
+        return new ExchangeRates(ids, currencies, direct, rates, parents, orders,
+                Collections.unmodifiableList(unreachable));
+    }
+
+    /**
+     * Derives the rates from one currency to every other currency, following the paths found
+     * by {@link #close}, in the order the currencies were reached.
+     */
+    private static void deriveRow(final int source, final int size, final int[] parents,
+                                  final int[] orders, final double[] directRates,
+                                  final double[] derivedRates) {
+        final int row = source * size;
+        Arrays.fill(derivedRates, row, row + size, Double.NaN);
+        derivedRates[row + source] = 1.0;
+
+        for (int i = 1; i < size && orders[row + i] >= 0; i++) {
+            final int target = orders[row + i];
+            final int parent = parents[row + target];
+            final double rate = directRates[parent * size + target];
+            derivedRates[row + target] = parent == source ? rate
+                    : derivedRates[row + parent] * rate;
+        }
+    }
+
+    /**
+     * Retrieves the id of a currency.
+     *
+     * @param currency the currency.
+     * @return the id of the currency, or {@code -1} if the bank has no rate for it.
+     */
+    public int getId(final String currency) {
+        final Integer id = idsByCurrency.get(currency);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Converts an amount between two currencies given by their ids.
+     *
+     * @param amount the amount to convert.
+     * @param fromId the id of the source currency.
+     * @param toId   the id of the target currency.
+     * @return the converted amount.
+     * @throws IllegalArgumentException if there is no rate between the currencies.
+     */
+    public double convert(final double amount, final int fromId, final int toId) {
+        if (fromId < 0 || toId < 0) {
+            throw new IllegalArgumentException("Unknown currency id: "
+                    + (fromId < 0 ? fromId : toId));
+        }
+
+        final double rate = rates[fromId * size + toId];
+        if (Double.isNaN(rate)) {
+            throw new IllegalArgumentException("No exchange rate from " + currencies[fromId]
+                    + " to " + currencies[toId]);
+        }
+
+        return amount * rate;
+    }
+
+    /**
+     * Converts an amount between two currencies.
+     *
+     * @param amount the amount to convert.
+     * @param from   the source currency.
+     * @param to     the target currency.
+     * @return the converted amount.
+     * @throws IllegalArgumentException if there is no rate between the currencies.
+     */
+    public double convert(final double amount, final String from, final String to) {
+        final int fromId = getId(from);
+        final int toId = getId(to);
+        if (fromId < 0 || toId < 0) {
+            throw new IllegalArgumentException("Unknown currency: " + (fromId < 0 ? from : to));
+        }
+
+        return convert(amount, fromId, toId);
+    }
+
+    /**
+     * Returns the pairs of currencies there is no way to convert between, as
+     * {@code "FROM -> TO"}, found when the rates were built.
+     *
+     * @return the unreachable pairs, in the order of the currency ids.
+     */
+    public List<String> getUnreachablePairs() {
+        return unreachablePairs;
+    }
+}
@@ -1,10 +1,10 @@
 package org.poo.bank.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.io.IOException;
 
 public final class CardOperationTransaction extends Transaction {
     private final String email;
@@ -33,9 +33,11 @@ public final class CardOperationTransaction extends Transaction {
     }
 
     @Override
-    public Set<String> getIBAN() {
-        final Set<String> set =  new HashSet<>();
-        set.add(account);
-        return set;
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        super.writeFields(generator);
+
+        generator.writeStringField("account", account);
+        generator.writeStringField("card", cardNumber);
+        generator.writeStringField("cardHolder", email);
     }
 }
@@ -1,8 +1,11 @@
 package org.poo.bank.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 public final class CashWithdrawTransaction extends Transaction {
     private final double amount;
 
@@ -21,4 +24,11 @@ public final class CashWithdrawTransaction extends Transaction {
 
         return result;
     }
+
+    @Override
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        super.writeFields(generator);
+
+        generator.writeNumberField("amount", amount);
+    }
 }
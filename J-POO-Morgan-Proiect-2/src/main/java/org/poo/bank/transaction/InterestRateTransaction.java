@@ -1,8 +1,11 @@
 package org.poo.bank.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 public final class InterestRateTransaction extends Transaction {
     private final double amount;
     private final String currency;
@@ -24,4 +27,12 @@ public final class InterestRateTransaction extends Transaction {
 
         return objectNode;
     }
+
+    @Override
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        super.writeFields(generator);
+
+        generator.writeNumberField("amount", amount);
+        generator.writeStringField("currency", currency);
+    }
 }
@@ -1,10 +1,12 @@
 package org.poo.bank.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 public final class MoneySentTransaction extends Transaction {
     private final double amount;
@@ -37,12 +39,22 @@ public final class MoneySentTransaction extends Transaction {
         return result;
     }
 
+    @Override
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        super.writeFields(generator);
+
+        generator.writeStringField("amount", amount + " " + currency);
+        generator.writeStringField("receiverIBAN", receiverIBAN);
+        generator.writeStringField("senderIBAN", iban);
+        generator.writeStringField("transferType", type);
+    }
+
 
     @Override
-    public Set<String> getIBAN() {
-        final Set<String> set = new HashSet<>();
-        set.add(receiverIBAN);
-        set.add(iban);
-        return set;
+    public void forEachIBAN(final Consumer<String> action) {
+        action.accept(receiverIBAN);
+        if (!Objects.equals(iban, receiverIBAN)) {
+            action.accept(iban);
+        }
     }
 }
@@ -1,8 +1,11 @@
 package org.poo.bank.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 public final class OnlinePaymentTransaction extends Transaction {
     private final double amount;
     private final String commerciant;
@@ -25,6 +28,14 @@ public final class OnlinePaymentTransaction extends Transaction {
         return result;
     }
 
+    @Override
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        super.writeFields(generator);
+
+        generator.writeNumberField("amount", amount);
+        generator.writeStringField("commerciant", commerciant);
+    }
+
     @Override
     public String getCommerciant() {
         return commerciant;
@@ -1,8 +1,11 @@
 package org.poo.bank.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 public final class SavingsWithdrawTransaction extends Transaction {
     private final String savingsAccountIBAN;
     private final double amount;
@@ -25,4 +28,13 @@ public final class SavingsWithdrawTransaction extends Transaction {
 
         return result;
     }
+
+    @Override
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        super.writeFields(generator);
+
+        generator.writeNumberField("amount", amount);
+        generator.writeStringField("classicAccountIBAN", iban);
+        generator.writeStringField("savingsAccountIBAN", savingsAccountIBAN);
+    }
 }
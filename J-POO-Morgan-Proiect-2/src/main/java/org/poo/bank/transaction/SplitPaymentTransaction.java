@@ -1,20 +1,22 @@
 package org.poo.bank.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
 import java.util.List;
 
 public final class SplitPaymentTransaction extends Transaction {
-    private final List<Double> amounts;
+    private final double[] amounts;
     private final String type;
     private final String currency;
     private final List<String> involvedAccounts;
     private final String error;
 
     public SplitPaymentTransaction(final int timestamp, final String description,
-                                   final List<Double> amounts, final String type,
+                                   final double[] amounts, final String type,
                                    final String currency, final List<String> accounts,
                                    final String error, final String iban) {
         super(timestamp, description, iban);
@@ -33,11 +35,11 @@ public final class SplitPaymentTransaction extends Transaction {
         result.put("currency", currency);
 
 
-        if (amounts.size() == 1) {
-            result.put("amount", amounts.getFirst());
+        if (amounts.length == 1) {
+            result.put("amount", amounts[0]);
         } else {
             final ArrayNode amountArr = objectMapper.createArrayNode();
-            for (final Double amount : amounts) {
+            for (final double amount : amounts) {
                 amountArr.add(amount);
             }
 
@@ -59,4 +61,33 @@ public final class SplitPaymentTransaction extends Transaction {
 
         return result;
     }
+
+    @Override
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        super.writeFields(generator);
+
+        generator.writeStringField("currency", currency);
+
+        if (amounts.length == 1) {
+            generator.writeNumberField("amount", amounts[0]);
+        } else {
+            generator.writeArrayFieldStart("amountForUsers");
+            for (final double amount : amounts) {
+                generator.writeNumber(amount);
+            }
+            generator.writeEndArray();
+        }
+
+        if (error != null) {
+            generator.writeStringField("error", error);
+        }
+
+        generator.writeStringField("splitPaymentType", type);
+
+        generator.writeArrayFieldStart("involvedAccounts");
+        for (final String account : involvedAccounts) {
+            generator.writeString(account);
+        }
+        generator.writeEndArray();
+    }
 }
@@ -1,12 +1,13 @@
 package org.poo.bank.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.Getter;
 import org.poo.fileio.JSONWritable;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.io.IOException;
+import java.util.function.Consumer;
 
 
 /**
@@ -45,6 +46,32 @@ public class Transaction implements JSONWritable {
         return result;
     }
 
+    /**
+     * Writes this transaction as a JSON object to the given generator.
+     *
+     * @param generator the {@code JsonGenerator} the transaction is written to
+     * @throws IOException if the transaction cannot be written
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeFields(generator);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the fields of this transaction, in the same order as
+     * {@link #toObjectNode(ObjectMapper)} adds them. Subclasses extend this method the same way
+     * they extend {@code toObjectNode}.
+     *
+     * @param generator the {@code JsonGenerator} the fields are written to
+     * @throws IOException if the fields cannot be written
+     */
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        generator.writeNumberField("timestamp", timestamp);
+        generator.writeStringField("description", description);
+    }
+
 
     /**
      * Returns the commerciant (merchant) associated with this transaction.
@@ -69,14 +96,12 @@ public class Transaction implements JSONWritable {
 
 
     /**
-     * Returns a set of IBANs associated with this transaction.
-     * By default, this set contains only the primary IBAN of this transaction.
+     * Performs an action for every IBAN associated with this transaction, once per IBAN.
+     * By default, this is only the primary IBAN of this transaction.
      *
-     * @return a {@code Set<String>} containing the IBAN(s) associated with this transaction
+     * @param action the action to perform
      */
-    public Set<String> getIBAN() {
-        final Set<String> set = new HashSet<>();
-        set.add(iban);
-        return set;
+    public void forEachIBAN(final Consumer<String> action) {
+        action.accept(iban);
     }
 }
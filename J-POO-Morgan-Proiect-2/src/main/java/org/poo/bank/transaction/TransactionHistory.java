@@ -0,0 +1,91 @@
+package org.poo.bank.transaction;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The transactions of a user, sorted by timestamp. Transactions with the same timestamp are
+ * kept in the order they were added.
+ *
+ * <p>The history is written by one thread at a time, which the caller makes sure of, and read
+ * by any thread without locking. A transaction arriving in order is appended to the array in
+ * place, then published by increasing the size, so the elements before the size never change.
+ * Growing the array or inserting a transaction out of order publishes a new array instead,
+ * leaving the old one as it was. A reader therefore sees a fixed prefix of one array, and no
+ * copy is made when reading.</p>
+ */
+public final class TransactionHistory {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private volatile Transaction[] elements;
+    private volatile int size;
+
+    public TransactionHistory() {
+        this.elements = new Transaction[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Adds a transaction after every transaction with the same or an earlier timestamp.
+     *
+     * @param transaction the transaction.
+     */
+    public void add(final Transaction transaction) {
+        final Transaction[] current = elements;
+        final int count = size;
+        final int timestamp = transaction.getTimestamp();
+        if (count == 0 || current[count - 1].getTimestamp() <= timestamp) {
+            if (count == current.length) {
+                final Transaction[] grown = Arrays.copyOf(current, count * 2);
+                grown[count] = transaction;
+                elements = grown;
+            } else {
+                current[count] = transaction;
+            }
+        } else {
+            final int position = upperBound(current, count, timestamp);
+            final Transaction[] copy = new Transaction[Math.max(current.length, count + 1)];
+            System.arraycopy(current, 0, copy, 0, position);
+            copy[position] = transaction;
+            System.arraycopy(current, position, copy, position + 1, count - position);
+            elements = copy;
+        }
+
+        size = count + 1;
+    }
+
+    /**
+     * Returns a read-only view of the transactions added so far. The view does not change
+     * when more transactions are added.
+     *
+     * @return the transactions, sorted by timestamp.
+     */
+    public List<Transaction> view() {
+        Transaction[] current;
+        int count;
+        do {
+            current = elements;
+            count = size;
+            // a new array published after the size was read may not hold the same prefix
+        } while (current != elements);
+
+        return Collections.unmodifiableList(Arrays.asList(current).subList(0, count));
+    }
+
+    private static int upperBound(final Transaction[] transactions, final int count,
+                                  final int timestamp) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (transactions[middle].getTimestamp() <= timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+}
@@ -0,0 +1,111 @@
+package org.poo.bank.transaction;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the transactions of a user by the IBANs they involve. The transactions of every
+ * IBAN are kept sorted by timestamp, so the ones in a time interval are found with a binary
+ * search instead of going through the whole history of the user.
+ */
+public final class TransactionIndex {
+    private static final Comparator<Entry> BY_SEQUENCE = Comparator.comparingInt(Entry::sequence);
+
+    /**
+     * A transaction, with the position it was added at among all the transactions of the user.
+     */
+    private record Entry(int sequence, Transaction transaction) {
+    }
+
+    private final Map<String, List<Entry>> entriesByIBAN;
+    private int sequence;
+
+    public TransactionIndex() {
+        this.entriesByIBAN = new HashMap<>();
+        this.sequence = 0;
+    }
+
+    /**
+     * Adds a transaction for every IBAN it involves.
+     *
+     * @param transaction the transaction.
+     */
+    public void add(final Transaction transaction) {
+        final Entry entry = new Entry(sequence++, transaction);
+        transaction.forEachIBAN(iban -> insert(iban, entry));
+    }
+
+    private void insert(final String iban, final Entry entry) {
+        if (iban == null) {
+            return;
+        }
+
+        final List<Entry> entries = entriesByIBAN.computeIfAbsent(iban, k -> new ArrayList<>());
+        final int timestamp = entry.transaction().getTimestamp();
+        if (entries.isEmpty() || entries.getLast().transaction().getTimestamp() <= timestamp) {
+            entries.add(entry);
+        } else {
+            entries.add(upperBound(entries, timestamp), entry);
+        }
+    }
+
+    /**
+     * Finds the transactions involving an IBAN in a time interval.
+     *
+     * @param iban           the IBAN.
+     * @param startTimestamp the first timestamp of the interval.
+     * @param endTimestamp   the last timestamp of the interval.
+     * @return the transactions, in the order they were added.
+     */
+    public List<Transaction> find(final String iban, final int startTimestamp,
+                                  final int endTimestamp) {
+        final List<Entry> entries = entriesByIBAN.get(iban);
+        if (entries == null || startTimestamp > endTimestamp) {
+            return List.of();
+        }
+
+        final int from = startTimestamp == Integer.MIN_VALUE
+                ? 0 : upperBound(entries, startTimestamp - 1);
+        final int to = upperBound(entries, endTimestamp);
+        if (from >= to) {
+            return List.of();
+        }
+
+        List<Entry> range = entries.subList(from, to);
+        for (int i = 1; i < range.size(); i++) {
+            if (range.get(i).sequence() < range.get(i - 1).sequence()) {
+                range = new ArrayList<>(range);
+                range.sort(BY_SEQUENCE);
+                break;
+            }
+        }
+
+        final List<Transaction> transactions = new ArrayList<>(range.size());
+        for (final Entry entry : range) {
+            transactions.add(entry.transaction());
+        }
+
+        return transactions;
+    }
+
+    /**
+     * Returns the position of the first entry with a timestamp greater than the given one.
+     */
+    private static int upperBound(final List<Entry> entries, final int timestamp) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (entries.get(middle).transaction().getTimestamp() <= timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+}
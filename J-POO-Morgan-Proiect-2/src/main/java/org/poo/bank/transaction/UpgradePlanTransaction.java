@@ -1,8 +1,11 @@
 package org.poo.bank.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 public final class UpgradePlanTransaction extends Transaction {
     private final String planType;
 
@@ -23,4 +26,12 @@ public final class UpgradePlanTransaction extends Transaction {
 
         return result;
     }
+
+    @Override
+    protected void writeFields(final JsonGenerator generator) throws IOException {
+        super.writeFields(generator);
+
+        generator.writeStringField("accountIBAN", iban);
+        generator.writeStringField("newPlanType", planType);
+    }
 }
@@ -0,0 +1,174 @@
+package org.poo.fileio;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link OutputSink} that hands the results to a dedicated writer thread, so that the thread
+ * running the commands never waits for the results to be formatted and written. The results
+ * travel through a bounded {@link SpscRingBuffer} and are written to the wrapped sink in the
+ * order they were received. When the buffer is full, {@link #write(ObjectNode)} blocks until
+ * the writer thread catches up.
+ *
+ * <p>Streaming is not supported: a {@link JSONWritable} reflects the live state of the bank,
+ * which later commands may change before the writer thread gets to it, while an
+ * {@link ObjectNode} is a snapshot taken when the command ran.</p>
+ */
+public final class AsyncOutputSink implements OutputSink {
+    /**
+     * Number of results the buffer holds when no capacity is given.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final OutputSink delegate;
+    private final SpscRingBuffer<ObjectNode> buffer;
+    private final Thread writer;
+
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    /**
+     * The thread waiting for room in the buffer, if any, and whether the writer thread waits
+     * for results. Each side publishes that it waits before checking the buffer a last time and
+     * parking, and the other side unparks it after changing the buffer, so no wake-up is lost.
+     */
+    private volatile Thread waitingProducer;
+    private volatile boolean writerWaiting;
+
+    /**
+     * Creates a sink with the default capacity and starts its writer thread.
+     *
+     * @param delegate the sink the results are written to, owned by this sink.
+     */
+    public AsyncOutputSink(final OutputSink delegate) {
+        this(delegate, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a sink and starts its writer thread.
+     *
+     * @param delegate the sink the results are written to, owned by this sink.
+     * @param capacity the number of results waiting to be written before writes block,
+     *                 rounded up to a power of two, at most {@code 1 << 30}.
+     */
+    public AsyncOutputSink(final OutputSink delegate, final int capacity) {
+        this.delegate = delegate;
+        this.buffer = new SpscRingBuffer<>(capacity);
+        this.closed = false;
+
+        this.writer = new Thread(this::drain, "output-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues the result for the writer thread, waiting while the buffer is full.
+     *
+     * @param result the {@link ObjectNode} produced by the command.
+     * @throws IOException if the writer thread failed to write a previous result,
+     *                     or if the calling thread is interrupted while waiting.
+     */
+    @Override
+    public void write(final ObjectNode result) throws IOException {
+        checkFailure();
+
+        if (!buffer.offer(result)) {
+            awaitRoom(result);
+        }
+
+        if (writerWaiting) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Parks the calling thread until the buffer has room for the result, then queues it.
+     */
+    private void awaitRoom(final ObjectNode result) throws IOException {
+        waitingProducer = Thread.currentThread();
+        try {
+            while (!buffer.offer(result)) {
+                checkFailure();
+                if (Thread.interrupted()) {
+                    throw new InterruptedIOException("Interrupted while waiting for the writer");
+                }
+
+                LockSupport.park(this);
+            }
+        } finally {
+            waitingProducer = null;
+        }
+    }
+
+    /**
+     * Body of the writer thread: writes the queued results until the sink is closed
+     * and the buffer is empty, or until a write fails. Any failure, including errors, is
+     * recorded for the producer, which is woken up in case it waits for room.
+     */
+    private void drain() {
+        try {
+            while (true) {
+                final ObjectNode result = buffer.poll();
+                if (result != null) {
+                    wakeProducer();
+                    delegate.write(result);
+                } else if (closed && buffer.isEmpty()) {
+                    return;
+                } else {
+                    writerWaiting = true;
+                    if (!closed && buffer.isEmpty()) {
+                        LockSupport.park(this);
+                    }
+                    writerWaiting = false;
+                }
+            }
+        } catch (final IOException e) {
+            failure = e;
+        } catch (final Throwable e) {
+            failure = new IOException(e);
+        } finally {
+            wakeProducer();
+        }
+    }
+
+    private void wakeProducer() {
+        final Thread producer = waitingProducer;
+        if (producer != null) {
+            LockSupport.unpark(producer);
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("Writing the output failed", failure);
+        }
+    }
+
+    /**
+     * Waits for the queued results to be written, then closes the wrapped sink.
+     *
+     * @throws IOException if a result could not be written, if the wrapped sink cannot be
+     *                     closed, or if the calling thread is interrupted while waiting.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(writer);
+
+        try {
+            writer.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the writer");
+        } finally {
+            if (!writer.isAlive()) {
+                delegate.close();
+            }
+        }
+
+        checkFailure();
+    }
+}
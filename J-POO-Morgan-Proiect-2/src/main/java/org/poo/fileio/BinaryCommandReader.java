@@ -0,0 +1,208 @@
+package org.poo.fileio;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decodes an input written by {@link BinaryCommandWriter}. The bank data is decoded as soon
+ * as the reader is created, and the commands one at a time, through {@link #nextCommand()}.
+ */
+public final class BinaryCommandReader implements CommandSource {
+    private static final CommandType[] COMMAND_TYPES = CommandType.values();
+
+    private final DataInputStream input;
+    private final List<String> dictionary;
+    private final CommandFields command;
+    private final UserInput[] users;
+    private final ExchangeInput[] exchangeRates;
+    private final CommerciantInput[] commerciants;
+    private boolean ended;
+
+    /**
+     * Opens the given encoded file and decodes the bank data.
+     *
+     * @param file the encoded input.
+     * @throws IOException if the file cannot be read or is not in the binary format.
+     */
+    public BinaryCommandReader(final File file) throws IOException {
+        this(new FileInputStream(file));
+    }
+
+    /**
+     * Decodes the bank data from the given stream. The stream is closed with the reader.
+     *
+     * @param inputStream the encoded input.
+     * @throws IOException if the stream cannot be read or is not in the binary format.
+     */
+    public BinaryCommandReader(final InputStream inputStream) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(inputStream));
+        this.dictionary = new ArrayList<>();
+        this.command = new CommandFields();
+
+        final byte[] magic = new byte[BinaryFormat.MAGIC.length];
+        input.readFully(magic);
+        if (!Arrays.equals(magic, BinaryFormat.MAGIC)
+                || input.readUnsignedByte() != BinaryFormat.VERSION) {
+            input.close();
+            throw new IOException("Not a binary command file");
+        }
+
+        this.users = new UserInput[BinaryFormat.readVarInt(input)];
+        for (int i = 0; i < users.length; i++) {
+            final UserInput user = new UserInput();
+            user.setFirstName(readText());
+            user.setLastName(readText());
+            user.setEmail(readString());
+            user.setBirthDate(readText());
+            user.setOccupation(readString());
+            users[i] = user;
+        }
+
+        this.exchangeRates = new ExchangeInput[BinaryFormat.readVarInt(input)];
+        for (int i = 0; i < exchangeRates.length; i++) {
+            final ExchangeInput rate = new ExchangeInput();
+            rate.setFrom(readString());
+            rate.setTo(readString());
+            rate.setRate(input.readDouble());
+            rate.setTimestamp(BinaryFormat.readSignedVarInt(input));
+            exchangeRates[i] = rate;
+        }
+
+        this.commerciants = new CommerciantInput[BinaryFormat.readVarInt(input)];
+        for (int i = 0; i < commerciants.length; i++) {
+            final CommerciantInput commerciant = new CommerciantInput();
+            commerciant.setCommerciant(readString());
+            commerciant.setId(BinaryFormat.readSignedVarInt(input));
+            commerciant.setAccount(readString());
+            commerciant.setType(readString());
+            commerciant.setCashbackStrategy(readString());
+            commerciants[i] = commerciant;
+        }
+    }
+
+    @Override
+    public UserInput[] getUsers() {
+        return users;
+    }
+
+    @Override
+    public ExchangeInput[] getExchangeRates() {
+        return exchangeRates;
+    }
+
+    @Override
+    public CommerciantInput[] getCommerciants() {
+        return commerciants;
+    }
+
+    @Override
+    public Command nextCommand() throws IOException {
+        if (ended) {
+            return null;
+        }
+
+        final int opcode = input.readUnsignedByte();
+        if (opcode == BinaryFormat.END) {
+            ended = true;
+            return null;
+        }
+
+        if (opcode > COMMAND_TYPES.length) {
+            throw new IOException("Unknown opcode: " + opcode);
+        }
+
+        command.clear();
+        command.setCommand(COMMAND_TYPES[opcode - 1]);
+
+        final int mask = BinaryFormat.readVarInt(input);
+        int bit = 0;
+        for (final BinaryFormat.StringField field : BinaryFormat.STRING_FIELDS) {
+            if ((mask & (1 << bit)) != 0) {
+                field.setter().accept(command, field.dictionary() ? readString() : readText());
+            }
+            bit++;
+        }
+        for (final BinaryFormat.IntField field : BinaryFormat.INT_FIELDS) {
+            if ((mask & (1 << bit)) != 0) {
+                field.setter().accept(command, BinaryFormat.readSignedVarInt(input));
+            }
+            bit++;
+        }
+        for (final BinaryFormat.DoubleField field : BinaryFormat.DOUBLE_FIELDS) {
+            if ((mask & (1 << bit)) != 0) {
+                field.setter().accept(command, input.readDouble());
+            }
+            bit++;
+        }
+
+        if ((mask & (1 << BinaryFormat.ACCOUNTS_BIT)) != 0) {
+            final int size = BinaryFormat.readVarInt(input);
+            final List<String> accounts = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                accounts.add(readString());
+            }
+            command.setAccounts(Collections.unmodifiableList(accounts));
+        }
+
+        if ((mask & (1 << BinaryFormat.AMOUNT_FOR_USERS_BIT)) != 0) {
+            final int size = BinaryFormat.readVarInt(input);
+            final double[] amounts = new double[size];
+            for (int i = 0; i < size; i++) {
+                amounts[i] = input.readDouble();
+            }
+            command.setAmountForUsers(amounts);
+        }
+
+        return command.build();
+    }
+
+    /**
+     * Reads a dictionary coded string.
+     */
+    private String readString() throws IOException {
+        final int tag = BinaryFormat.readVarInt(input);
+        if (tag == BinaryFormat.NULL) {
+            return null;
+        }
+
+        if (tag >= BinaryFormat.FIRST_INDEX) {
+            return dictionary.get(tag - BinaryFormat.FIRST_INDEX);
+        }
+
+        final String value = readUtf8(BinaryFormat.readVarInt(input));
+        dictionary.add(value);
+        return value;
+    }
+
+    /**
+     * Reads a string that was written without being added to the dictionary.
+     */
+    private String readText() throws IOException {
+        final int tag = BinaryFormat.readVarInt(input);
+        if (tag == BinaryFormat.NULL) {
+            return null;
+        }
+
+        return readUtf8(tag - 1);
+    }
+
+    private String readUtf8(final int length) throws IOException {
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -0,0 +1,205 @@
+package org.poo.fileio;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes an input in the compact binary format described by {@link BinaryFormat}.
+ * The bank data is written first, through {@link #writeBankData}, followed by any number of
+ * commands. Closing the writer marks the end of the commands.
+ */
+public final class BinaryCommandWriter implements Closeable {
+    private final DataOutputStream output;
+    private final Map<String, Integer> dictionary;
+    private final CommandFields command;
+
+    /**
+     * Creates a writer and writes the format header. The stream is closed with the writer.
+     *
+     * @param outputStream the stream the encoded input is written to.
+     * @throws IOException if the header cannot be written.
+     */
+    public BinaryCommandWriter(final OutputStream outputStream) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(outputStream));
+        this.dictionary = new HashMap<>();
+        this.command = new CommandFields();
+
+        output.write(BinaryFormat.MAGIC);
+        output.writeByte(BinaryFormat.VERSION);
+    }
+
+    /**
+     * Writes the data the bank is initialized with.
+     *
+     * @param users        the users of the bank.
+     * @param rates        the exchange rates.
+     * @param commerciants the commerciants.
+     * @throws IOException if the data cannot be written.
+     */
+    public void writeBankData(final UserInput[] users, final ExchangeInput[] rates,
+                              final CommerciantInput[] commerciants) throws IOException {
+        BinaryFormat.writeVarInt(output, users.length);
+        for (final UserInput user : users) {
+            writeText(user.getFirstName());
+            writeText(user.getLastName());
+            writeString(user.getEmail());
+            writeText(user.getBirthDate());
+            writeString(user.getOccupation());
+        }
+
+        BinaryFormat.writeVarInt(output, rates.length);
+        for (final ExchangeInput rate : rates) {
+            writeString(rate.getFrom());
+            writeString(rate.getTo());
+            output.writeDouble(rate.getRate());
+            BinaryFormat.writeSignedVarInt(output, rate.getTimestamp());
+        }
+
+        BinaryFormat.writeVarInt(output, commerciants.length);
+        for (final CommerciantInput commerciant : commerciants) {
+            writeString(commerciant.getCommerciant());
+            BinaryFormat.writeSignedVarInt(output, commerciant.getId());
+            writeString(commerciant.getAccount());
+            writeString(commerciant.getType());
+            writeString(commerciant.getCashbackStrategy());
+        }
+    }
+
+    /**
+     * Writes a single command. Fields left to their default value are not written.
+     *
+     * @param source the command to encode.
+     * @throws IOException if the command cannot be written.
+     */
+    public void writeCommand(final Command source) throws IOException {
+        command.load(source);
+        output.writeByte(command.getCommand().ordinal() + 1);
+
+        int mask = 0;
+        int bit = 0;
+        for (final BinaryFormat.StringField field : BinaryFormat.STRING_FIELDS) {
+            if (field.getter().apply(command) != null) {
+                mask |= 1 << bit;
+            }
+            bit++;
+        }
+        for (final BinaryFormat.IntField field : BinaryFormat.INT_FIELDS) {
+            if (field.getter().applyAsInt(command) != 0) {
+                mask |= 1 << bit;
+            }
+            bit++;
+        }
+        for (final BinaryFormat.DoubleField field : BinaryFormat.DOUBLE_FIELDS) {
+            if (Double.doubleToRawLongBits(field.getter().applyAsDouble(command)) != 0) {
+                mask |= 1 << bit;
+            }
+            bit++;
+        }
+        if (command.getAccounts() != null) {
+            mask |= 1 << BinaryFormat.ACCOUNTS_BIT;
+        }
+        if (command.getAmountForUsers() != null) {
+            mask |= 1 << BinaryFormat.AMOUNT_FOR_USERS_BIT;
+        }
+
+        BinaryFormat.writeVarInt(output, mask);
+
+        for (final BinaryFormat.StringField field : BinaryFormat.STRING_FIELDS) {
+            final String value = field.getter().apply(command);
+            if (value == null) {
+                continue;
+            }
+
+            if (field.dictionary()) {
+                writeString(value);
+            } else {
+                writeText(value);
+            }
+        }
+        for (final BinaryFormat.IntField field : BinaryFormat.INT_FIELDS) {
+            final int value = field.getter().applyAsInt(command);
+            if (value != 0) {
+                BinaryFormat.writeSignedVarInt(output, value);
+            }
+        }
+        for (final BinaryFormat.DoubleField field : BinaryFormat.DOUBLE_FIELDS) {
+            final double value = field.getter().applyAsDouble(command);
+            if (Double.doubleToRawLongBits(value) != 0) {
+                output.writeDouble(value);
+            }
+        }
+
+        final List<String> accounts = command.getAccounts();
+        if (accounts != null) {
+            BinaryFormat.writeVarInt(output, accounts.size());
+            for (final String account : accounts) {
+                writeString(account);
+            }
+        }
+
+        final double[] amounts = command.getAmountForUsers();
+        if (amounts != null) {
+            BinaryFormat.writeVarInt(output, amounts.length);
+            for (final double amount : amounts) {
+                output.writeDouble(amount);
+            }
+        }
+    }
+
+    /**
+     * Writes a dictionary coded string.
+     */
+    private void writeString(final String value) throws IOException {
+        if (value == null) {
+            BinaryFormat.writeVarInt(output, BinaryFormat.NULL);
+            return;
+        }
+
+        final Integer index = dictionary.get(value);
+        if (index != null) {
+            BinaryFormat.writeVarInt(output, BinaryFormat.FIRST_INDEX + index);
+            return;
+        }
+
+        dictionary.put(value, dictionary.size());
+        BinaryFormat.writeVarInt(output, BinaryFormat.LITERAL);
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes a string that is unlikely to repeat, without adding it to the dictionary.
+     */
+    private void writeText(final String value) throws IOException {
+        if (value == null) {
+            BinaryFormat.writeVarInt(output, BinaryFormat.NULL);
+            return;
+        }
+
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        BinaryFormat.writeVarInt(output, bytes.length + 1);
+        output.write(bytes);
+    }
+
+    private void writeBytes(final byte[] bytes) throws IOException {
+        BinaryFormat.writeVarInt(output, bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Marks the end of the commands and closes the underlying stream.
+     *
+     * @throws IOException if the end marker cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        output.writeByte(BinaryFormat.END);
+        output.close();
+    }
+}
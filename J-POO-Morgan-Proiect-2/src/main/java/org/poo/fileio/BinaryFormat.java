@@ -0,0 +1,164 @@
+package org.poo.fileio;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Layout of the compact binary command encoding, shared by {@link BinaryCommandWriter} and
+ * {@link BinaryCommandReader}.
+ *
+ * <p>A file starts with the {@link #MAGIC} bytes and the format {@link #VERSION}, followed by
+ * the users, exchange rates and commerciants, each list prefixed by its length. Then come the
+ * commands, each one starting with its opcode (the {@link CommandType} ordinal plus one) and a
+ * bit mask of the {@link CommandFields} it sets. Only those fields are written, in the
+ * order of {@link #STRING_FIELDS}, {@link #INT_FIELDS}, {@link #DOUBLE_FIELDS}, then the
+ * {@code accounts} and {@code amountForUsers} lists. An {@link #END} opcode closes the file.</p>
+ *
+ * <p>Counts and masks are unsigned varints, integers are zig-zag varints and doubles are
+ * written on a fixed 8 bytes. Identifiers such as emails, IBANs, card numbers and commerciant
+ * names are dictionary coded: the first occurrence of a value is written in full and added to
+ * the dictionary, and every later occurrence is written as its index in the dictionary.</p>
+ */
+final class BinaryFormat {
+    static final byte[] MAGIC = {'P', 'O', 'O', 'B'};
+    static final int VERSION = 3;
+    static final int END = 0;
+
+    /**
+     * Tag of a missing string. Dictionary coded strings use {@link #LITERAL} for a new value
+     * and {@link #FIRST_INDEX} plus the dictionary index for a known one. Plain strings use
+     * their UTF-8 length plus one.
+     */
+    static final int NULL = 0;
+    static final int LITERAL = 1;
+    static final int FIRST_INDEX = 2;
+
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MASK = 0x7F;
+    private static final int VARINT_MORE = 0x80;
+
+    /**
+     * A string field, with whether its values are dictionary coded.
+     */
+    record StringField(Function<CommandFields, String> getter,
+                       BiConsumer<CommandFields, String> setter,
+                       boolean dictionary) {
+    }
+
+    /**
+     * An integer field, written when it is not zero.
+     */
+    record IntField(ToIntFunction<CommandFields> getter, ObjIntConsumer<CommandFields> setter) {
+    }
+
+    /**
+     * A double field, written when it is not zero.
+     */
+    record DoubleField(ToDoubleFunction<CommandFields> getter,
+                       ObjDoubleConsumer<CommandFields> setter) {
+    }
+
+    static final List<StringField> STRING_FIELDS = List.of(
+            new StringField(CommandFields::getEmail, CommandFields::setEmail, true),
+            new StringField(CommandFields::getAccount, CommandFields::setAccount, true),
+            new StringField(CommandFields::getNewPlanType, CommandFields::setNewPlanType, true),
+            new StringField(CommandFields::getRole, CommandFields::setRole, true),
+            new StringField(CommandFields::getCurrency, CommandFields::setCurrency, true),
+            new StringField(CommandFields::getDescription, CommandFields::setDescription, false),
+            new StringField(CommandFields::getCardNumber, CommandFields::setCardNumber, true),
+            new StringField(CommandFields::getCommerciant, CommandFields::setCommerciant, true),
+            new StringField(CommandFields::getReceiver, CommandFields::setReceiver, true),
+            new StringField(CommandFields::getAlias, CommandFields::setAlias, true),
+            new StringField(CommandFields::getAccountType, CommandFields::setAccountType, true),
+            new StringField(CommandFields::getSplitPaymentType,
+                    CommandFields::setSplitPaymentType, true),
+            new StringField(CommandFields::getType, CommandFields::setType, true),
+            new StringField(CommandFields::getFrom, CommandFields::setFrom, true),
+            new StringField(CommandFields::getTo, CommandFields::setTo, true));
+
+    static final List<IntField> INT_FIELDS = List.of(
+            new IntField(CommandFields::getTimestamp, CommandFields::setTimestamp),
+            new IntField(CommandFields::getStartTimestamp, CommandFields::setStartTimestamp),
+            new IntField(CommandFields::getEndTimestamp, CommandFields::setEndTimestamp));
+
+    static final List<DoubleField> DOUBLE_FIELDS = List.of(
+            new DoubleField(CommandFields::getInterestRate, CommandFields::setInterestRate),
+            new DoubleField(CommandFields::getAmount, CommandFields::setAmount),
+            new DoubleField(CommandFields::getRate, CommandFields::setRate));
+
+    static final int ACCOUNTS_BIT = STRING_FIELDS.size() + INT_FIELDS.size()
+            + DOUBLE_FIELDS.size();
+    static final int AMOUNT_FOR_USERS_BIT = ACCOUNTS_BIT + 1;
+
+    private BinaryFormat() {
+    }
+
+    /**
+     * Writes a non-negative integer on as few bytes as possible, 7 bits per byte.
+     *
+     * @param output the destination.
+     * @param value  the value, treated as unsigned.
+     * @throws IOException if the value cannot be written.
+     */
+    static void writeVarInt(final DataOutput output, final int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~VARINT_MASK) != 0) {
+            output.writeByte((remaining & VARINT_MASK) | VARINT_MORE);
+            remaining >>>= VARINT_BITS;
+        }
+
+        output.writeByte(remaining);
+    }
+
+    /**
+     * Reads an integer written by {@link #writeVarInt(DataOutput, int)}.
+     *
+     * @param input the source.
+     * @return the value.
+     * @throws IOException if the value cannot be read.
+     */
+    static int readVarInt(final DataInput input) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int current = input.readUnsignedByte();
+
+        while ((current & VARINT_MORE) != 0) {
+            value |= (current & VARINT_MASK) << shift;
+            shift += VARINT_BITS;
+            current = input.readUnsignedByte();
+        }
+
+        return value | (current << shift);
+    }
+
+    /**
+     * Writes a signed integer as a zig-zag varint, so that small negative values stay short.
+     *
+     * @param output the destination.
+     * @param value  the value.
+     * @throws IOException if the value cannot be written.
+     */
+    static void writeSignedVarInt(final DataOutput output, final int value) throws IOException {
+        writeVarInt(output, (value << 1) ^ (value >> (Integer.SIZE - 1)));
+    }
+
+    /**
+     * Reads an integer written by {@link #writeSignedVarInt(DataOutput, int)}.
+     *
+     * @param input the source.
+     * @return the value.
+     * @throws IOException if the value cannot be read.
+     */
+    static int readSignedVarInt(final DataInput input) throws IOException {
+        final int encoded = readVarInt(input);
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+}
@@ -0,0 +1,240 @@
+package org.poo.fileio;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import java.util.List;
+
+/**
+ * A command read from an input. Every command is an immutable record holding only the fields
+ * that command uses, with primitive fields wherever the input holds numbers. The record type
+ * is chosen from the {@code command} field of the input by {@link CommandDeserializer}.
+ */
+@JsonDeserialize(using = CommandDeserializer.class)
+public sealed interface Command {
+    /**
+     * @return the kind of this command.
+     */
+    CommandType commandType();
+
+    /**
+     * @return the time the command was issued at.
+     */
+    int timestamp();
+
+    record PrintUsers(int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.PRINT_USERS;
+        }
+    }
+
+    record PrintTransactions(String email, int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.PRINT_TRANSACTIONS;
+        }
+    }
+
+    record AddAccount(String email, String currency, String accountType, double interestRate,
+                      int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.ADD_ACCOUNT;
+        }
+    }
+
+    record AddFunds(String account, double amount, String email, int timestamp)
+            implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.ADD_FUNDS;
+        }
+    }
+
+    record CreateCard(String account, String email, int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.CREATE_CARD;
+        }
+    }
+
+    record CreateOneTimeCard(String account, String email, int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.CREATE_ONE_TIME_CARD;
+        }
+    }
+
+    record DeleteAccount(String account, String email, int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.DELETE_ACCOUNT;
+        }
+    }
+
+    record DeleteCard(String cardNumber, int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.DELETE_CARD;
+        }
+    }
+
+    record SetMinimumBalance(String account, double amount, int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.SET_MINIMUM_BALANCE;
+        }
+    }
+
+    record CheckCardStatus(String cardNumber, int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.CHECK_CARD_STATUS;
+        }
+    }
+
+    record PayOnline(String cardNumber, double amount, String currency, String description,
+                     String commerciant, String email, int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.PAY_ONLINE;
+        }
+    }
+
+    record SendMoney(String account, double amount, String receiver, String description,
+                     int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.SEND_MONEY;
+        }
+    }
+
+    record SetAlias(String account, String email, String alias, int timestamp)
+            implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.SET_ALIAS;
+        }
+    }
+
+    record AddInterest(String account, int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.ADD_INTEREST;
+        }
+    }
+
+    record ChangeInterestRate(String account, double interestRate, int timestamp)
+            implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.CHANGE_INTEREST_RATE;
+        }
+    }
+
+    /**
+     * A split payment. {@code amountForUsers} is only set for custom splits, and must not be
+     * modified once the command is created.
+     */
+    record SplitPayment(List<String> accounts, String splitPaymentType,
+                        double[] amountForUsers, double amount, String currency,
+                        int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.SPLIT_PAYMENT;
+        }
+    }
+
+    record Report(String account, int startTimestamp, int endTimestamp, int timestamp)
+            implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.REPORT;
+        }
+    }
+
+    record SpendingsReport(String account, int startTimestamp, int endTimestamp,
+                           int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.SPENDINGS_REPORT;
+        }
+    }
+
+    record WithdrawSavings(String account, double amount, String currency, int timestamp)
+            implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.WITHDRAW_SAVINGS;
+        }
+    }
+
+    record UpgradePlan(String account, String newPlanType, int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.UPGRADE_PLAN;
+        }
+    }
+
+    record CashWithdrawal(String cardNumber, double amount, String email, int timestamp)
+            implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.CASH_WITHDRAWAL;
+        }
+    }
+
+    record AcceptSplitPayment(String email, int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.ACCEPT_SPLIT_PAYMENT;
+        }
+    }
+
+    record RejectSplitPayment(String email, int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.REJECT_SPLIT_PAYMENT;
+        }
+    }
+
+    record AddNewBusinessAssociate(String account, String role, String email, int timestamp)
+            implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.ADD_NEW_BUSINESS_ASSOCIATE;
+        }
+    }
+
+    record ChangeSpendingLimit(String account, String email, double amount, int timestamp)
+            implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.CHANGE_SPENDING_LIMIT;
+        }
+    }
+
+    record ChangeDepositLimit(String account, String email, double amount, int timestamp)
+            implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.CHANGE_DEPOSIT_LIMIT;
+        }
+    }
+
+    record BusinessReport(String account, String type, int startTimestamp, int endTimestamp,
+                          int timestamp) implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.BUSINESS_REPORT;
+        }
+    }
+
+    record UpdateExchangeRate(String from, String to, double rate, int timestamp)
+            implements Command {
+        @Override
+        public CommandType commandType() {
+            return CommandType.UPDATE_EXCHANGE_RATE;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.poo.fileio;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads a {@link Command} straight from the parser tokens, without building an intermediate
+ * tree. The fields may appear in any order; the {@code command} field selects the record that
+ * is created once the whole object was read. Fields the command does not use are ignored.
+ */
+public final class CommandDeserializer extends StdDeserializer<Command> {
+    private static final int INITIAL_AMOUNTS = 4;
+
+    /**
+     * Creates the deserializer, as done by Jackson for {@link Command}.
+     */
+    public CommandDeserializer() {
+        super(Command.class);
+    }
+
+    @Override
+    public Command deserialize(final JsonParser parser, final DeserializationContext context)
+            throws IOException {
+        String name;
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            name = parser.nextFieldName();
+        } else if (parser.currentToken() == JsonToken.FIELD_NAME) {
+            name = parser.currentName();
+        } else {
+            return (Command) context.handleUnexpectedToken(Command.class, parser);
+        }
+
+        final CommandFields fields = new CommandFields();
+        while (name != null) {
+            parser.nextToken();
+
+            switch (name) {
+                case "command" -> fields.setCommand(CommandType.fromName(parser.getText()));
+                case "email" -> fields.setEmail(parser.getValueAsString());
+                case "account" -> fields.setAccount(parser.getValueAsString());
+                case "newPlanType" -> fields.setNewPlanType(parser.getValueAsString());
+                case "role" -> fields.setRole(parser.getValueAsString());
+                case "currency" -> fields.setCurrency(parser.getValueAsString());
+                case "description" -> fields.setDescription(parser.getValueAsString());
+                case "cardNumber" -> fields.setCardNumber(parser.getValueAsString());
+                case "commerciant" -> fields.setCommerciant(parser.getValueAsString());
+                case "receiver" -> fields.setReceiver(parser.getValueAsString());
+                case "alias" -> fields.setAlias(parser.getValueAsString());
+                case "accountType" -> fields.setAccountType(parser.getValueAsString());
+                case "splitPaymentType" -> fields.setSplitPaymentType(parser.getValueAsString());
+                case "type" -> fields.setType(parser.getValueAsString());
+                case "from" -> fields.setFrom(parser.getValueAsString());
+                case "to" -> fields.setTo(parser.getValueAsString());
+                case "timestamp" -> fields.setTimestamp(parser.getValueAsInt());
+                case "startTimestamp" -> fields.setStartTimestamp(parser.getValueAsInt());
+                case "endTimestamp" -> fields.setEndTimestamp(parser.getValueAsInt());
+                case "interestRate" -> fields.setInterestRate(parser.getValueAsDouble());
+                case "amount" -> fields.setAmount(parser.getValueAsDouble());
+                case "rate" -> fields.setRate(parser.getValueAsDouble());
+                case "accounts" -> fields.setAccounts(readStrings(parser));
+                case "amountForUsers" -> fields.setAmountForUsers(readDoubles(parser));
+                default -> parser.skipChildren();
+            }
+
+            name = parser.nextFieldName();
+        }
+
+        return fields.build();
+    }
+
+    private static List<String> readStrings(final JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            return null;
+        }
+
+        final List<String> values = new ArrayList<>();
+        JsonToken token = parser.nextToken();
+        while (token != null && token != JsonToken.END_ARRAY) {
+            values.add(parser.getValueAsString());
+            token = parser.nextToken();
+        }
+
+        return Collections.unmodifiableList(values);
+    }
+
+    private static double[] readDoubles(final JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            return null;
+        }
+
+        double[] values = new double[INITIAL_AMOUNTS];
+        int size = 0;
+        JsonToken token = parser.nextToken();
+        while (token != null && token != JsonToken.END_ARRAY) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = parser.getValueAsDouble();
+            token = parser.nextToken();
+        }
+
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,259 @@
+package org.poo.fileio;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Flat, mutable view of the fields a {@link Command} can have, used while a command is
+ * decoded or encoded. The decoders fill in the fields one at a time and then {@link #build()}
+ * the record, while the binary encoder {@link #load}s a record to write its fields in a fixed
+ * order. An instance can be reused for any number of commands.
+ */
+@Getter
+@Setter
+final class CommandFields {
+    private CommandType command;
+    private String email;
+    private String account;
+    private String newPlanType;
+    private String role;
+    private String currency;
+    private String description;
+    private String cardNumber;
+    private String commerciant;
+    private String receiver;
+    private String alias;
+    private String accountType;
+    private String splitPaymentType;
+    private String type;
+    private String from;
+    private String to;
+    private int timestamp;
+    private int startTimestamp;
+    private int endTimestamp;
+    private double interestRate;
+    private double amount;
+    private double rate;
+    private List<String> accounts;
+    private double[] amountForUsers;
+
+    /**
+     * Resets every field to its default value.
+     */
+    void clear() {
+        command = null;
+        email = null;
+        account = null;
+        newPlanType = null;
+        role = null;
+        currency = null;
+        description = null;
+        cardNumber = null;
+        commerciant = null;
+        receiver = null;
+        alias = null;
+        accountType = null;
+        splitPaymentType = null;
+        type = null;
+        from = null;
+        to = null;
+        timestamp = 0;
+        startTimestamp = 0;
+        endTimestamp = 0;
+        interestRate = 0;
+        amount = 0;
+        rate = 0;
+        accounts = null;
+        amountForUsers = null;
+    }
+
+    /**
+     * Creates the record of the current {@link #command}, from the fields it uses.
+     *
+     * @return the command.
+     * @throws IllegalStateException if no command type was set.
+     */
+    Command build() {
+        if (command == null) {
+            throw new IllegalStateException("Unexpected value: null");
+        }
+
+        return switch (command) {
+            case PRINT_USERS -> new Command.PrintUsers(timestamp);
+            case PRINT_TRANSACTIONS -> new Command.PrintTransactions(email, timestamp);
+            case ADD_ACCOUNT -> new Command.AddAccount(email, currency, accountType,
+                    interestRate, timestamp);
+            case ADD_FUNDS -> new Command.AddFunds(account, amount, email, timestamp);
+            case CREATE_CARD -> new Command.CreateCard(account, email, timestamp);
+            case CREATE_ONE_TIME_CARD -> new Command.CreateOneTimeCard(account, email,
+                    timestamp);
+            case DELETE_ACCOUNT -> new Command.DeleteAccount(account, email, timestamp);
+            case DELETE_CARD -> new Command.DeleteCard(cardNumber, timestamp);
+            case SET_MINIMUM_BALANCE -> new Command.SetMinimumBalance(account, amount,
+                    timestamp);
+            case CHECK_CARD_STATUS -> new Command.CheckCardStatus(cardNumber, timestamp);
+            case PAY_ONLINE -> new Command.PayOnline(cardNumber, amount, currency, description,
+                    commerciant, email, timestamp);
+            case SEND_MONEY -> new Command.SendMoney(account, amount, receiver, description,
+                    timestamp);
+            case SET_ALIAS -> new Command.SetAlias(account, email, alias, timestamp);
+            case ADD_INTEREST -> new Command.AddInterest(account, timestamp);
+            case CHANGE_INTEREST_RATE -> new Command.ChangeInterestRate(account, interestRate,
+                    timestamp);
+            case SPLIT_PAYMENT -> new Command.SplitPayment(accounts, splitPaymentType,
+                    amountForUsers, amount, currency, timestamp);
+            case REPORT -> new Command.Report(account, startTimestamp, endTimestamp,
+                    timestamp);
+            case SPENDINGS_REPORT -> new Command.SpendingsReport(account, startTimestamp,
+                    endTimestamp, timestamp);
+            case WITHDRAW_SAVINGS -> new Command.WithdrawSavings(account, amount, currency,
+                    timestamp);
+            case UPGRADE_PLAN -> new Command.UpgradePlan(account, newPlanType, timestamp);
+            case CASH_WITHDRAWAL -> new Command.CashWithdrawal(cardNumber, amount, email,
+                    timestamp);
+            case ACCEPT_SPLIT_PAYMENT -> new Command.AcceptSplitPayment(email, timestamp);
+            case REJECT_SPLIT_PAYMENT -> new Command.RejectSplitPayment(email, timestamp);
+            case ADD_NEW_BUSINESS_ASSOCIATE -> new Command.AddNewBusinessAssociate(account,
+                    role, email, timestamp);
+            case CHANGE_SPENDING_LIMIT -> new Command.ChangeSpendingLimit(account, email,
+                    amount, timestamp);
+            case CHANGE_DEPOSIT_LIMIT -> new Command.ChangeDepositLimit(account, email,
+                    amount, timestamp);
+            case BUSINESS_REPORT -> new Command.BusinessReport(account, type, startTimestamp,
+                    endTimestamp, timestamp);
+            case UPDATE_EXCHANGE_RATE -> new Command.UpdateExchangeRate(from, to, rate,
+                    timestamp);
+        };
+    }
+
+    /**
+     * Replaces the current fields with the ones of the given command.
+     *
+     * @param source the command to copy the fields of.
+     */
+    void load(final Command source) {
+        clear();
+        command = source.commandType();
+        timestamp = source.timestamp();
+
+        switch (source) {
+            case Command.PrintUsers c -> {
+            }
+            case Command.PrintTransactions c -> email = c.email();
+            case Command.AddAccount c -> {
+                email = c.email();
+                currency = c.currency();
+                accountType = c.accountType();
+                interestRate = c.interestRate();
+            }
+            case Command.AddFunds c -> {
+                account = c.account();
+                amount = c.amount();
+                email = c.email();
+            }
+            case Command.CreateCard c -> {
+                account = c.account();
+                email = c.email();
+            }
+            case Command.CreateOneTimeCard c -> {
+                account = c.account();
+                email = c.email();
+            }
+            case Command.DeleteAccount c -> {
+                account = c.account();
+                email = c.email();
+            }
+            case Command.DeleteCard c -> cardNumber = c.cardNumber();
+            case Command.SetMinimumBalance c -> {
+                account = c.account();
+                amount = c.amount();
+            }
+            case Command.CheckCardStatus c -> cardNumber = c.cardNumber();
+            case Command.PayOnline c -> {
+                cardNumber = c.cardNumber();
+                amount = c.amount();
+                currency = c.currency();
+                description = c.description();
+                commerciant = c.commerciant();
+                email = c.email();
+            }
+            case Command.SendMoney c -> {
+                account = c.account();
+                amount = c.amount();
+                receiver = c.receiver();
+                description = c.description();
+            }
+            case Command.SetAlias c -> {
+                account = c.account();
+                email = c.email();
+                alias = c.alias();
+            }
+            case Command.AddInterest c -> account = c.account();
+            case Command.ChangeInterestRate c -> {
+                account = c.account();
+                interestRate = c.interestRate();
+            }
+            case Command.SplitPayment c -> {
+                accounts = c.accounts();
+                splitPaymentType = c.splitPaymentType();
+                amountForUsers = c.amountForUsers();
+                amount = c.amount();
+                currency = c.currency();
+            }
+            case Command.Report c -> {
+                account = c.account();
+                startTimestamp = c.startTimestamp();
+                endTimestamp = c.endTimestamp();
+            }
+            case Command.SpendingsReport c -> {
+                account = c.account();
+                startTimestamp = c.startTimestamp();
+                endTimestamp = c.endTimestamp();
+            }
+            case Command.WithdrawSavings c -> {
+                account = c.account();
+                amount = c.amount();
+                currency = c.currency();
+            }
+            case Command.UpgradePlan c -> {
+                account = c.account();
+                newPlanType = c.newPlanType();
+            }
+            case Command.CashWithdrawal c -> {
+                cardNumber = c.cardNumber();
+                amount = c.amount();
+                email = c.email();
+            }
+            case Command.AcceptSplitPayment c -> email = c.email();
+            case Command.RejectSplitPayment c -> email = c.email();
+            case Command.AddNewBusinessAssociate c -> {
+                account = c.account();
+                role = c.role();
+                email = c.email();
+            }
+            case Command.ChangeSpendingLimit c -> {
+                account = c.account();
+                email = c.email();
+                amount = c.amount();
+            }
+            case Command.ChangeDepositLimit c -> {
+                account = c.account();
+                email = c.email();
+                amount = c.amount();
+            }
+            case Command.BusinessReport c -> {
+                account = c.account();
+                type = c.type();
+                startTimestamp = c.startTimestamp();
+                endTimestamp = c.endTimestamp();
+            }
+            case Command.UpdateExchangeRate c -> {
+                from = c.from();
+                to = c.to();
+                rate = c.rate();
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.poo.fileio;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Source of the data needed for a run: the bank data used to initialize the bank, followed by
+ * the commands, which are read one at a time.
+ */
+public interface CommandSource extends Closeable {
+    /**
+     * @return the users the bank starts with.
+     */
+    UserInput[] getUsers();
+
+    /**
+     * @return the exchange rates known by the bank.
+     */
+    ExchangeInput[] getExchangeRates();
+
+    /**
+     * @return the commerciants known by the bank.
+     */
+    CommerciantInput[] getCommerciants();
+
+    /**
+     * Reads the next command.
+     *
+     * @return the next {@link Command}, or {@code null} if there are no more commands.
+     * @throws IOException if the command cannot be read.
+     */
+    Command nextCommand() throws IOException;
+}
@@ -0,0 +1,73 @@
+package org.poo.fileio;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The commands that can appear in an input, identified by the name used in the
+ * {@code command} field. The ordinal of each command is used as its opcode in the binary
+ * command encoding, so new commands must only be added at the end.
+ */
+@Getter
+public enum CommandType {
+    PRINT_USERS("printUsers"),
+    PRINT_TRANSACTIONS("printTransactions"),
+    ADD_ACCOUNT("addAccount"),
+    ADD_FUNDS("addFunds"),
+    CREATE_CARD("createCard"),
+    CREATE_ONE_TIME_CARD("createOneTimeCard"),
+    DELETE_ACCOUNT("deleteAccount"),
+    DELETE_CARD("deleteCard"),
+    SET_MINIMUM_BALANCE("setMinimumBalance"),
+    CHECK_CARD_STATUS("checkCardStatus"),
+    PAY_ONLINE("payOnline"),
+    SEND_MONEY("sendMoney"),
+    SET_ALIAS("setAlias"),
+    ADD_INTEREST("addInterest"),
+    CHANGE_INTEREST_RATE("changeInterestRate"),
+    SPLIT_PAYMENT("splitPayment"),
+    REPORT("report"),
+    SPENDINGS_REPORT("spendingsReport"),
+    WITHDRAW_SAVINGS("withdrawSavings"),
+    UPGRADE_PLAN("upgradePlan"),
+    CASH_WITHDRAWAL("cashWithdrawal"),
+    ACCEPT_SPLIT_PAYMENT("acceptSplitPayment"),
+    REJECT_SPLIT_PAYMENT("rejectSplitPayment"),
+    ADD_NEW_BUSINESS_ASSOCIATE("addNewBusinessAssociate"),
+    CHANGE_SPENDING_LIMIT("changeSpendingLimit"),
+    CHANGE_DEPOSIT_LIMIT("changeDepositLimit"),
+    BUSINESS_REPORT("businessReport"),
+    UPDATE_EXCHANGE_RATE("updateExchangeRate");
+
+    private static final Map<String, CommandType> BY_NAME = new HashMap<>();
+
+    static {
+        for (final CommandType type : values()) {
+            BY_NAME.put(type.commandName, type);
+        }
+    }
+
+    private final String commandName;
+
+    CommandType(final String commandName) {
+        this.commandName = commandName;
+    }
+
+    /**
+     * Finds the command with the given name.
+     *
+     * @param name the value of the {@code command} field.
+     * @return the corresponding {@link CommandType}.
+     * @throws IllegalStateException if no command has the given name.
+     */
+    public static CommandType fromName(final String name) {
+        final CommandType type = BY_NAME.get(name);
+        if (type == null) {
+            throw new IllegalStateException("Unexpected value: " + name);
+        }
+
+        return type;
+    }
+}
@@ -1,8 +1,11 @@
 package org.poo.fileio;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 public interface JSONWritable {
     /**
      * Converts the implementing object to an {@link ObjectNode} using the provided
@@ -15,4 +18,15 @@ public interface JSONWritable {
      * @return an {@link ObjectNode} representing the object's state in JSON format.
      */
     ObjectNode toObjectNode(ObjectMapper objectMapper);
+
+    /**
+     * Writes the implementing object directly to the given {@link JsonGenerator}.
+     * The written JSON must be identical to the one produced by
+     * {@link #toObjectNode(ObjectMapper)}, including the order of the fields, but no
+     * intermediate tree is built.
+     *
+     * @param generator the {@link JsonGenerator} the object is written to.
+     * @throws IOException if the object cannot be written.
+     */
+    void writeTo(JsonGenerator generator) throws IOException;
 }
@@ -0,0 +1,121 @@
+package org.poo.fileio;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Reads an input file incrementally, using Jackson's streaming {@link JsonParser}.
+ * The bank data ({@code users}, {@code exchangeRates} and {@code commerciants}) is read
+ * as soon as the reader is created, while the {@code commands} array is handed out one
+ * element at a time through {@link #nextCommand()}. This keeps the memory used by a run
+ * independent of the number of commands in the file.
+ *
+ * <p>If the {@code commands} array appears before the rest of the bank data, the commands
+ * have to be buffered, since none of them can run before the bank is initialized.</p>
+ */
+public final class JsonCommandReader implements CommandSource {
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+
+    @Getter
+    private UserInput[] users;
+    @Getter
+    private ExchangeInput[] exchangeRates;
+    @Getter
+    private CommerciantInput[] commerciants;
+
+    private Iterator<Command> bufferedCommands;
+    private boolean insideCommands;
+
+    /**
+     * Opens the given file and reads the bank data preceding the commands.
+     *
+     * @param objectMapper the mapper used to bind the JSON elements to input objects.
+     * @param file         the input file.
+     * @throws IOException if the file cannot be read or is not a JSON object.
+     */
+    public JsonCommandReader(final ObjectMapper objectMapper, final File file)
+            throws IOException {
+        this(objectMapper, objectMapper.getFactory().createParser(file));
+    }
+
+    /**
+     * Reads the bank data preceding the commands from an already created parser.
+     * The reader takes ownership of the parser and closes it in {@link #close()}.
+     *
+     * @param objectMapper the mapper used to bind the JSON elements to input objects.
+     * @param parser       the parser positioned before the root object.
+     * @throws IOException if the input cannot be read or is not a JSON object.
+     */
+    public JsonCommandReader(final ObjectMapper objectMapper, final JsonParser parser)
+            throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = parser;
+
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            parser.close();
+            throw new IOException("Expected the input to be a JSON object");
+        }
+
+        readBankData();
+    }
+
+    /**
+     * Reads the root object fields until the {@code commands} array is reached with
+     * all the bank data already known, or until the end of the root object.
+     */
+    private void readBankData() throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.currentName();
+            parser.nextToken();
+
+            switch (field) {
+                case "users" -> users = objectMapper.readValue(parser, UserInput[].class);
+                case "exchangeRates" -> exchangeRates = objectMapper.readValue(parser,
+                        ExchangeInput[].class);
+                case "commerciants" -> commerciants = objectMapper.readValue(parser,
+                        CommerciantInput[].class);
+                case "commands" -> {
+                    if (users != null && exchangeRates != null && commerciants != null) {
+                        insideCommands = true;
+                        return;
+                    }
+
+                    bufferedCommands = Arrays.asList(objectMapper.readValue(parser,
+                            Command[].class)).iterator();
+                }
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    @Override
+    public Command nextCommand() throws IOException {
+        if (bufferedCommands != null) {
+            return bufferedCommands.hasNext() ? bufferedCommands.next() : null;
+        }
+
+        if (!insideCommands) {
+            return null;
+        }
+
+        if (parser.nextToken() == JsonToken.START_OBJECT) {
+            return objectMapper.readValue(parser, Command.class);
+        }
+
+        insideCommands = false;
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
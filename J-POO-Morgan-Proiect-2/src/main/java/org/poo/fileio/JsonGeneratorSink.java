@@ -0,0 +1,126 @@
+package org.poo.fileio;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link OutputSink} that writes every result to a {@link JsonGenerator} as soon as it
+ * is received, instead of keeping the whole output array in memory until the end of the run.
+ * The results form a single JSON array, identical to the one written by an
+ * {@link ObjectWriter} when pretty printing is enabled.
+ *
+ * <p>The generator is flushed after every {@code flushInterval} results, so that readers of
+ * the output can follow it while the commands are still running.</p>
+ */
+public final class JsonGeneratorSink implements OutputSink {
+    /**
+     * Number of results written between two flushes when no interval is given.
+     */
+    public static final int DEFAULT_FLUSH_INTERVAL = 64;
+
+    private final JsonGenerator generator;
+    private final ObjectWriter objectWriter;
+    private final int flushInterval;
+    private int unflushed;
+
+    /**
+     * Creates a sink writing to the given file, with the default flush interval.
+     *
+     * @param objectMapper the mapper used to write the results.
+     * @param file         the output file.
+     * @param prettyPrint  whether the output is indented or written on a single line.
+     * @throws IOException if the file cannot be opened.
+     */
+    public JsonGeneratorSink(final ObjectMapper objectMapper, final File file,
+                             final boolean prettyPrint) throws IOException {
+        this(objectMapper, file, prettyPrint, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * Creates a sink writing to the given file.
+     *
+     * @param objectMapper  the mapper used to write the results.
+     * @param file          the output file.
+     * @param prettyPrint   whether the output is indented or written on a single line.
+     * @param flushInterval the number of results written between two flushes,
+     *                      or {@code 0} to flush only when the sink is closed.
+     * @throws IOException if the file cannot be opened.
+     */
+    public JsonGeneratorSink(final ObjectMapper objectMapper, final File file,
+                             final boolean prettyPrint, final int flushInterval)
+            throws IOException {
+        this(objectMapper, new FileOutputStream(file), prettyPrint, flushInterval);
+    }
+
+    /**
+     * Creates a sink writing to the given stream. The stream is closed together with the sink.
+     *
+     * @param objectMapper  the mapper used to write the results.
+     * @param outputStream  the stream the results are written to.
+     * @param prettyPrint   whether the output is indented or written on a single line.
+     * @param flushInterval the number of results written between two flushes,
+     *                      or {@code 0} to flush only when the sink is closed.
+     * @throws IOException if the opening of the array cannot be written.
+     */
+    public JsonGeneratorSink(final ObjectMapper objectMapper, final OutputStream outputStream,
+                             final boolean prettyPrint, final int flushInterval)
+            throws IOException {
+        this.generator = objectMapper.getFactory()
+                .createGenerator(outputStream, JsonEncoding.UTF8);
+        if (prettyPrint) {
+            generator.useDefaultPrettyPrinter();
+        }
+
+        this.objectWriter = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.flushInterval = flushInterval;
+        this.unflushed = 0;
+
+        generator.writeStartArray();
+    }
+
+    @Override
+    public void write(final ObjectNode result) throws IOException {
+        objectWriter.writeValue(generator, result);
+        resultWritten();
+    }
+
+    @Override
+    public boolean supportsStreaming() {
+        return true;
+    }
+
+    @Override
+    public void write(final JSONWritable result) throws IOException {
+        result.writeTo(generator);
+        resultWritten();
+    }
+
+    private void resultWritten() throws IOException {
+        unflushed++;
+        if (flushInterval > 0 && unflushed >= flushInterval) {
+            generator.flush();
+            unflushed = 0;
+        }
+    }
+
+    /**
+     * Closes the output array and the underlying stream.
+     *
+     * @throws IOException if the output cannot be completed.
+     */
+    @Override
+    public void close() throws IOException {
+        generator.writeEndArray();
+        generator.close();
+    }
+}
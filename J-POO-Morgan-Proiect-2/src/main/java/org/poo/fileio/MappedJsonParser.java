@@ -0,0 +1,176 @@
+package org.poo.fileio;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link JsonParser} reading a file through memory mapping. The file is mapped with
+ * {@link FileChannel#map} and the mapped buffers are fed directly to Jackson's non-blocking
+ * {@link ByteBufferFeeder} parser, so the bytes are never copied into an intermediate stream
+ * buffer.
+ *
+ * <p>A single mapping is limited to 2 GB, so larger files are mapped in consecutive chunks.
+ * When the non-blocking parser runs out of input it reports {@link JsonToken#NOT_AVAILABLE};
+ * this parser then maps the next chunk and resumes, so callers, including data binding, only
+ * ever see complete tokens.</p>
+ */
+public final class MappedJsonParser extends JsonParserDelegate {
+    /**
+     * Size of the chunks the file is mapped in, when no chunk size is given.
+     */
+    public static final long DEFAULT_CHUNK_SIZE = 1L << 30;
+
+    /**
+     * The smallest chunk size, and the unit every chunk size is a multiple of. Every chunk is
+     * a separate mapping that stays until its buffer is collected, so tiny chunks would exhaust
+     * the mappings of the process; a multiple of this size is also aligned to the pages.
+     */
+    public static final long MIN_CHUNK_SIZE = 1L << 16;
+
+    private final FileChannel channel;
+    private final ByteBufferFeeder feeder;
+    private final long chunkSize;
+    private final long size;
+    private long mapped;
+    private boolean ended;
+
+    private MappedJsonParser(final JsonParser parser, final FileChannel channel,
+                             final long chunkSize) throws IOException {
+        super(parser);
+
+        this.channel = channel;
+        this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+        this.chunkSize = chunkSize;
+        this.size = channel.size();
+        this.mapped = 0;
+        this.ended = false;
+    }
+
+    /**
+     * Opens a memory mapped parser over the given file, with the default chunk size.
+     *
+     * @param factory the factory creating the underlying non-blocking parser.
+     * @param file    the file to parse.
+     * @return the parser, positioned before the first token.
+     * @throws IOException if the file cannot be opened or mapped.
+     */
+    public static MappedJsonParser open(final JsonFactory factory, final File file)
+            throws IOException {
+        return open(factory, file, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Opens a memory mapped parser over the given file.
+     *
+     * @param factory   the factory creating the underlying non-blocking parser.
+     * @param file      the file to parse.
+     * @param chunkSize the number of bytes mapped at once, see {@link #isValidChunkSize}.
+     * @return the parser, positioned before the first token.
+     * @throws IOException if the file cannot be opened or mapped.
+     * @throws IllegalArgumentException if the chunk size is not valid.
+     */
+    public static MappedJsonParser open(final JsonFactory factory, final File file,
+                                        final long chunkSize) throws IOException {
+        if (!isValidChunkSize(chunkSize)) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            return new MappedJsonParser(factory.createNonBlockingByteBufferParser(), channel,
+                    chunkSize);
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks a chunk size: it must be a multiple of {@link #MIN_CHUNK_SIZE}, at least that
+     * size, and at most {@link Integer#MAX_VALUE}, the largest size of a single mapping.
+     *
+     * @param chunkSize the number of bytes mapped at once.
+     * @return {@code true} if the chunk size can be used.
+     */
+    public static boolean isValidChunkSize(final long chunkSize) {
+        return chunkSize >= MIN_CHUNK_SIZE && chunkSize <= Integer.MAX_VALUE
+                && chunkSize % MIN_CHUNK_SIZE == 0;
+    }
+
+    /**
+     * Returns the next complete token, mapping further chunks of the file whenever the
+     * underlying parser needs more input.
+     */
+    @Override
+    public JsonToken nextToken() throws IOException {
+        JsonToken token = delegate.nextToken();
+
+        while (token == JsonToken.NOT_AVAILABLE) {
+            if (mapped < size) {
+                final long length = Math.min(chunkSize, size - mapped);
+                feeder.feedInput(channel.map(FileChannel.MapMode.READ_ONLY, mapped, length));
+                mapped += length;
+            } else if (!ended) {
+                feeder.endOfInput();
+                ended = true;
+            } else {
+                return null;
+            }
+
+            token = delegate.nextToken();
+        }
+
+        return token;
+    }
+
+    @Override
+    public JsonToken nextValue() throws IOException {
+        final JsonToken token = nextToken();
+        if (token == JsonToken.FIELD_NAME) {
+            return nextToken();
+        }
+
+        return token;
+    }
+
+    @Override
+    public JsonParser skipChildren() throws IOException {
+        final JsonToken current = currentToken();
+        if (current != JsonToken.START_OBJECT && current != JsonToken.START_ARRAY) {
+            return this;
+        }
+
+        int depth = 1;
+        while (depth > 0) {
+            final JsonToken token = nextToken();
+            if (token == null) {
+                return this;
+            }
+
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+        }
+
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package org.poo.fileio;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads commands from an append-only log holding one {@link Command} JSON object per
+ * line (NDJSON). The bank data is read from a separate header file, with the same layout as a
+ * regular input file but without the {@code commands} array.
+ *
+ * <p>Lines are parsed one at a time, as they are requested. In follow mode the reader behaves
+ * like {@code tail -f}: when it reaches the end of the log it waits for more lines to be
+ * appended instead of ending the run. In this mode a line is only parsed once its terminating
+ * newline has been written, so partially appended commands are never read.</p>
+ */
+public final class NdjsonCommandReader implements CommandSource {
+    /**
+     * Time waited for new lines, in milliseconds, when no poll interval is given.
+     */
+    public static final long DEFAULT_POLL_INTERVAL = 200;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectInput header;
+    private final InputStream log;
+    private final boolean follow;
+    private final long pollInterval;
+
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    private final ByteArrayOutputStream line;
+
+    /**
+     * Opens a command log.
+     *
+     * @param objectMapper the mapper used to bind the header and the commands.
+     * @param headerFile   the file holding the users, exchange rates and commerciants.
+     * @param logFile      the file holding one command per line.
+     * @param follow       whether to wait for new commands at the end of the log.
+     * @param pollInterval the time waited for new lines in follow mode, in milliseconds.
+     * @throws IOException if the header cannot be read or the log cannot be opened.
+     */
+    public NdjsonCommandReader(final ObjectMapper objectMapper, final File headerFile,
+                               final File logFile, final boolean follow,
+                               final long pollInterval) throws IOException {
+        this.objectMapper = objectMapper;
+        this.header = objectMapper.readValue(headerFile, ObjectInput.class);
+        this.log = new FileInputStream(logFile);
+        this.follow = follow;
+        this.pollInterval = pollInterval;
+
+        this.buffer = new byte[BUFFER_SIZE];
+        this.position = 0;
+        this.limit = 0;
+        this.line = new ByteArrayOutputStream();
+    }
+
+    @Override
+    public UserInput[] getUsers() {
+        return header.getUsers();
+    }
+
+    @Override
+    public ExchangeInput[] getExchangeRates() {
+        return header.getExchangeRates();
+    }
+
+    @Override
+    public CommerciantInput[] getCommerciants() {
+        return header.getCommerciants();
+    }
+
+    /**
+     * Reads the next command from the log. Blank lines are skipped. In follow mode this method
+     * blocks until a new command is appended, and only returns {@code null} once the calling
+     * thread is interrupted.
+     *
+     * @return the next {@link Command}, or {@code null} if there are no more commands.
+     * @throws IOException if the log cannot be read or a line is not a valid command.
+     */
+    @Override
+    public Command nextCommand() throws IOException {
+        while (true) {
+            if (!readLine()) {
+                if (follow) {
+                    if (waitForData()) {
+                        continue;
+                    }
+
+                    return null;
+                }
+
+                // the last line of a complete log does not need a newline
+                if (line.size() == 0) {
+                    return null;
+                }
+            }
+
+            final byte[] bytes = line.toByteArray();
+            line.reset();
+
+            if (!isBlank(bytes)) {
+                return objectMapper.readValue(bytes, Command.class);
+            }
+        }
+    }
+
+    /**
+     * Moves the bytes of the current line into {@link #line}, until its newline is found.
+     *
+     * @return {@code true} if a whole line was read, {@code false} if the end of the log was
+     * reached first. The bytes read so far are kept for the next call.
+     */
+    private boolean readLine() throws IOException {
+        while (true) {
+            if (position == limit) {
+                final int read = log.read(buffer);
+                if (read <= 0) {
+                    return false;
+                }
+
+                position = 0;
+                limit = read;
+            }
+
+            final int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+
+            line.write(buffer, start, position - start);
+            if (position < limit) {
+                position++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Waits for more lines to be appended to the log.
+     *
+     * @return {@code true} if reading should be retried, {@code false} if the thread was
+     * interrupted while waiting.
+     */
+    private boolean waitForData() {
+        try {
+            Thread.sleep(pollInterval);
+            return true;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static boolean isBlank(final byte[] bytes) {
+        for (final byte b : bytes) {
+            if (!Character.isWhitespace(b)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+}
@@ -0,0 +1,64 @@
+package org.poo.fileio;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link OutputSink} that writes every result as a single line of JSON (NDJSON) and flushes it
+ * right away, so that the output of a continuously running log can be followed line by line.
+ */
+public final class NdjsonSink implements OutputSink {
+    private final JsonGenerator generator;
+    private final ObjectWriter objectWriter;
+
+    /**
+     * Creates a sink writing to the given stream. The stream is closed together with the sink.
+     *
+     * @param objectMapper the mapper used to write the results.
+     * @param outputStream the stream the results are written to.
+     * @throws IOException if the generator cannot be created.
+     */
+    public NdjsonSink(final ObjectMapper objectMapper, final OutputStream outputStream)
+            throws IOException {
+        this.generator = objectMapper.getFactory()
+                .createGenerator(outputStream, JsonEncoding.UTF8);
+        this.generator.setRootValueSeparator(null);
+
+        this.objectWriter = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    public void write(final ObjectNode result) throws IOException {
+        objectWriter.writeValue(generator, result);
+        endLine();
+    }
+
+    @Override
+    public boolean supportsStreaming() {
+        return true;
+    }
+
+    @Override
+    public void write(final JSONWritable result) throws IOException {
+        result.writeTo(generator);
+        endLine();
+    }
+
+    private void endLine() throws IOException {
+        generator.writeRaw('\n');
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -8,6 +8,6 @@ import lombok.NoArgsConstructor;
 public final class ObjectInput {
     private UserInput[] users;
     private ExchangeInput[] exchangeRates;
-    private CommandInput[] commands;
+    private Command[] commands;
     private CommerciantInput[] commerciants;
 }
@@ -0,0 +1,43 @@
+package org.poo.fileio;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination for the results produced while running the commands of an input.
+ * Results are handed to the sink in the order the commands were executed.
+ */
+public interface OutputSink extends Closeable {
+    /**
+     * Writes the result of a single command.
+     *
+     * @param result the {@link ObjectNode} produced by the command.
+     * @throws IOException if the result cannot be written.
+     */
+    void write(ObjectNode result) throws IOException;
+
+    /**
+     * Tells whether this sink accepts {@link JSONWritable} results, written through
+     * {@link JSONWritable#writeTo} without building an {@link ObjectNode} first.
+     *
+     * @return {@code true} if {@link #write(JSONWritable)} is supported.
+     */
+    default boolean supportsStreaming() {
+        return false;
+    }
+
+    /**
+     * Writes the result of a single command by streaming it to the output.
+     * The result must be written before this method returns, since it may reflect
+     * state that later commands change.
+     *
+     * @param result the result produced by the command.
+     * @throws IOException                   if the result cannot be written.
+     * @throws UnsupportedOperationException if the sink does not support streaming.
+     */
+    default void write(JSONWritable result) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+}
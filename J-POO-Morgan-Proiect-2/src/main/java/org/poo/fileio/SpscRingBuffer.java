@@ -0,0 +1,83 @@
+package org.poo.fileio;
+
+/**
+ * Bounded ring buffer for exactly one producer thread and one consumer thread.
+ * Elements are handed out in the order they were added. Neither side ever takes a lock:
+ * the producer only writes {@code tail} and the consumer only writes {@code head}, each
+ * publishing its progress to the other side through a volatile write.
+ *
+ * @param <E> the type of the elements.
+ */
+final class SpscRingBuffer<E> {
+    /**
+     * The largest capacity, the largest power of two an array can hold.
+     */
+    static final int MAX_CAPACITY = 1 << 30;
+
+    private final Object[] elements;
+    private final int mask;
+
+    private volatile long head;
+    private volatile long tail;
+
+    /**
+     * Creates the buffer. The capacity is rounded up to a power of two, so the buffer may hold
+     * more elements than asked for.
+     *
+     * @param capacity the minimum number of elements held, at most {@link #MAX_CAPACITY}.
+     * @throws IllegalArgumentException if the capacity is not positive or too large.
+     */
+    SpscRingBuffer(final int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+
+        final int size = Integer.highestOneBit(capacity) == capacity
+                ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.elements = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an element at the end of the buffer. Must only be called by the producer.
+     *
+     * @param element the element, not {@code null}.
+     * @return {@code false} if the buffer is full and the element was not added.
+     */
+    boolean offer(final E element) {
+        final long currentTail = tail;
+        if (currentTail - head == elements.length) {
+            return false;
+        }
+
+        elements[(int) currentTail & mask] = element;
+        tail = currentTail + 1;
+        return true;
+    }
+
+    /**
+     * Removes the element at the start of the buffer. Must only be called by the consumer.
+     *
+     * @return the element, or {@code null} if the buffer is empty.
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        final long currentHead = head;
+        if (currentHead == tail) {
+            return null;
+        }
+
+        final int index = (int) currentHead & mask;
+        final E element = (E) elements[index];
+        elements[index] = null;
+        head = currentHead + 1;
+        return element;
+    }
+
+    /**
+     * @return whether the buffer holds no elements.
+     */
+    boolean isEmpty() {
+        return head == tail;
+    }
+}
@@ -0,0 +1,226 @@
+package org.poo.main;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.poo.bank.Bank;
+import org.poo.fileio.Command;
+import org.poo.fileio.CommandSource;
+import org.poo.fileio.OutputSink;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Runs the commands of an input with one actor per user. Every user who is sent a command
+ * gets a mailbox, drained in order by its own virtual thread, so the commands of different
+ * users run at the same time while the commands of one user run in the order they were given.
+ *
+ * <p>A command is sent to the mailbox of the user it belongs to, found by
+ * {@link CommandOwners} from its email, the account it names or the card it uses. A command
+ * involving several users, such as a transfer between two of them, asks their actors to stop
+ * at the point it was given, runs once they all replied, then lets them go on. Commands that
+ * change the bank itself, like creating accounts or cards, and commands that cannot be routed
+ * stop every actor the same way, so the IBANs and card numbers are generated in the same
+ * order as in a sequential run.</p>
+ *
+ * <p>The results are written in the order of the commands, so the output is the same as the
+ * one of {@link Main#run}.</p>
+ */
+public final class ActorRunner {
+    /**
+     * The maximum number of commands sent to the actors whose results were not written yet.
+     * Once reached, the dispatcher waits for the first result before reading more commands,
+     * which also bounds the messages waiting in the mailboxes.
+     */
+    private static final int MAX_PENDING = 4096;
+
+    private final CommandOwners owners;
+    private final CommandRunner commandRunner;
+    private final OutputSink sink;
+    private final Map<Integer, Mailbox> mailboxes;
+    private final Deque<CompletableFuture<ObjectNode>> results;
+
+    private ActorRunner(final ObjectMapper objectMapper, final Bank bank,
+                        final OutputSink sink) {
+        this.owners = new CommandOwners(bank);
+        // results are written here in command order, so nothing is streamed to the sink
+        this.commandRunner = new CommandRunner(objectMapper, bank);
+        this.sink = sink;
+        this.mailboxes = new HashMap<>();
+        this.results = new ArrayDeque<>();
+    }
+
+    /**
+     * Initializes the bank with the data of the source, then executes the commands of the
+     * source on the actors of the users, writing the results to the sink in command order.
+     *
+     * @param objectMapper the mapper used to create the results.
+     * @param source       the source of the bank data and of the commands.
+     * @param sink         the sink receiving the results.
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void run(final ObjectMapper objectMapper, final CommandSource source,
+                           final OutputSink sink) throws IOException {
+        final Bank bank = new Bank();
+        bank.initializeBank(source.getUsers(), source.getExchangeRates(),
+                source.getCommerciants());
+
+        final ActorRunner runner = new ActorRunner(objectMapper, bank, sink);
+        try {
+            Command command = source.nextCommand();
+            while (command != null) {
+                runner.dispatch(command);
+                runner.writeCompleted(MAX_PENDING);
+                command = source.nextCommand();
+            }
+
+            runner.writeCompleted(0);
+        } finally {
+            runner.stop();
+        }
+    }
+
+    private void dispatch(final Command command) {
+        final int[] userIds = owners.of(command);
+        if (userIds != null && userIds.length == 1) {
+            final CompletableFuture<ObjectNode> result = new CompletableFuture<>();
+            mailboxOf(userIds[0]).send(() -> execute(command, result));
+            results.add(result);
+            return;
+        }
+
+        final List<Mailbox> involved = new ArrayList<>();
+        if (userIds == null) {
+            involved.addAll(mailboxes.values());
+        } else {
+            for (final int userId : userIds) {
+                involved.add(mailboxOf(userId));
+            }
+        }
+
+        // every involved actor replies once it reached the command, then waits for it to run
+        final CountDownLatch arrived = new CountDownLatch(involved.size());
+        final CountDownLatch done = new CountDownLatch(1);
+        for (final Mailbox mailbox : involved) {
+            mailbox.send(() -> {
+                arrived.countDown();
+                awaitUninterruptibly(done);
+            });
+        }
+
+        final CompletableFuture<ObjectNode> result = new CompletableFuture<>();
+        try {
+            awaitUninterruptibly(arrived);
+            execute(command, result);
+        } finally {
+            done.countDown();
+        }
+        results.add(result);
+    }
+
+    private void execute(final Command command, final CompletableFuture<ObjectNode> result) {
+        try {
+            result.complete(commandRunner.executeCommand(command));
+        } catch (final RuntimeException | Error e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Writes the results of the first commands, as long as they are available, then waits for
+     * the first results until at most the given number of results are pending.
+     *
+     * @param maxPending the number of results left pending.
+     */
+    private void writeCompleted(final int maxPending) throws IOException {
+        while (!results.isEmpty()
+                && (results.size() > maxPending || results.peekFirst().isDone())) {
+            final ObjectNode result = Futures.join(results.pollFirst());
+            if (result != null) {
+                sink.write(result);
+            }
+        }
+    }
+
+    private void stop() {
+        for (final Mailbox mailbox : mailboxes.values()) {
+            mailbox.stop();
+        }
+    }
+
+    private Mailbox mailboxOf(final int userId) {
+        return mailboxes.computeIfAbsent(userId, k -> new Mailbox());
+    }
+
+    private static void awaitUninterruptibly(final CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The mailbox of one actor, drained by a virtual thread.
+     */
+    private static final class Mailbox {
+        private static final Runnable STOP = () -> { };
+
+        private final BlockingQueue<Runnable> queue;
+        private final Thread thread;
+
+        Mailbox() {
+            this.queue = new LinkedBlockingQueue<>();
+            this.thread = Thread.ofVirtual().start(this::drain);
+        }
+
+        void send(final Runnable message) {
+            queue.add(message);
+        }
+
+        private void drain() {
+            try {
+                Runnable message = queue.take();
+                while (message != STOP) {
+                    message.run();
+                    message = queue.take();
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void stop() {
+            queue.add(STOP);
+            boolean interrupted = false;
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.poo.main;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.poo.checker.CheckerConstants;
+import org.poo.fileio.BinaryCommandWriter;
+import org.poo.fileio.Command;
+import org.poo.fileio.JsonCommandReader;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * Converts JSON inputs to the compact binary command encoding read by {@link BinaryRunner}.
+ *
+ * <p>Usage: {@code BinaryConverter [<input.json> <output.bin>]}. Without arguments, every test
+ * in the input directory is converted into {@link #BINARY_TESTS_PATH}.</p>
+ */
+public final class BinaryConverter {
+    /**
+     * Directory holding the converted tests.
+     */
+    public static final String BINARY_TESTS_PATH = "input_bin/";
+
+    /**
+     * Extension of the converted files.
+     */
+    public static final String BINARY_EXTENSION = ".bin";
+
+    private static final String JSON_EXTENSION = ".json";
+
+    /**
+     * for coding style
+     */
+    private BinaryConverter() {
+    }
+
+    /**
+     * @param args the input and output files, or nothing to convert all the tests
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length >= 2) {
+            convert(new File(args[0]), new File(args[1]));
+            return;
+        }
+
+        Files.createDirectories(Paths.get(BINARY_TESTS_PATH));
+        File directory = new File(CheckerConstants.TESTS_PATH);
+        for (File file : Objects.requireNonNull(directory.listFiles())) {
+            String name = file.getName();
+            if (!name.endsWith(JSON_EXTENSION)) {
+                continue;
+            }
+
+            String binaryName = name.substring(0, name.length() - JSON_EXTENSION.length())
+                    + BINARY_EXTENSION;
+            File output = new File(BINARY_TESTS_PATH + binaryName);
+            convert(file, output);
+
+            System.out.println(name + ": " + file.length() + " -> " + output.length()
+                    + " bytes");
+        }
+    }
+
+    /**
+     * Converts a JSON input to the binary encoding, streaming the commands one at a time.
+     *
+     * @param input  the JSON input file.
+     * @param output the binary file to create.
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void convert(final File input, final File output) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        try (JsonCommandReader reader = new JsonCommandReader(objectMapper, input);
+             BinaryCommandWriter writer = new BinaryCommandWriter(
+                     new FileOutputStream(output))) {
+            writer.writeBankData(reader.getUsers(), reader.getExchangeRates(),
+                    reader.getCommerciants());
+
+            Command command = reader.nextCommand();
+            while (command != null) {
+                writer.writeCommand(command);
+                command = reader.nextCommand();
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.poo.main;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.poo.checker.Checker;
+import org.poo.checker.CheckerConstants;
+import org.poo.fileio.BinaryCommandReader;
+import org.poo.fileio.CommandSource;
+import org.poo.fileio.OutputSink;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Runs inputs encoded by {@link BinaryConverter}.
+ *
+ * <p>Usage: {@code BinaryRunner [<input.bin> <output.json>]}. Without arguments, every
+ * converted test is run and its output is checked against the reference, like {@link Main}
+ * does for the JSON tests.</p>
+ */
+public final class BinaryRunner {
+    private static final String JSON_EXTENSION = ".json";
+
+    /**
+     * for coding style
+     */
+    private BinaryRunner() {
+    }
+
+    /**
+     * @param args the input and output files, or nothing to run all the converted tests
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length >= 2) {
+            action(new File(args[0]), new File(args[1]));
+            return;
+        }
+
+        Files.createDirectories(Paths.get(CheckerConstants.RESULT_PATH));
+        File directory = new File(BinaryConverter.BINARY_TESTS_PATH);
+        var sortedFiles = Arrays.stream(Objects.requireNonNull(directory.listFiles()))
+                .sorted(Comparator.comparingInt(Main::fileConsumer))
+                .toList();
+
+        for (File file : sortedFiles) {
+            String name = file.getName();
+            String jsonName = name.substring(0, name.length()
+                    - BinaryConverter.BINARY_EXTENSION.length()) + JSON_EXTENSION;
+
+            action(file, new File(CheckerConstants.OUT_PATH + jsonName));
+            Checker.calculateScore(jsonName);
+        }
+    }
+
+    /**
+     * @param input  the binary input file
+     * @param output the output file
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void action(final File input, final File output) throws IOException {
+        action(input, output, RunOptions.fromSystemProperties());
+    }
+
+    /**
+     * @param input   the binary input file
+     * @param output  the output file
+     * @param options selecting how the output file is written
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void action(final File input, final File output, final RunOptions options)
+            throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        try (CommandSource source = new BinaryCommandReader(input);
+             OutputSink sink = Main.openSink(objectMapper, output, options)) {
+            Main.run(objectMapper, source, sink);
+        }
+    }
+}
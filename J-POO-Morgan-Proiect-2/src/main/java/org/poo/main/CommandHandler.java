@@ -0,0 +1,22 @@
+package org.poo.main;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.poo.fileio.Command;
+
+/**
+ * Executes one kind of {@link Command}. Handlers are registered in a {@link CommandRunner}
+ * for a {@link org.poo.fileio.CommandType}, see {@link CommandRunner#register}.
+ *
+ * @param <C> the record type of the commands handled.
+ */
+@FunctionalInterface
+public interface CommandHandler<C extends Command> {
+    /**
+     * Executes the command.
+     *
+     * @param command the command to execute.
+     * @return the result to be written to the output, or {@code null} if the command has no
+     * result or its result was already written.
+     */
+    ObjectNode execute(C command);
+}
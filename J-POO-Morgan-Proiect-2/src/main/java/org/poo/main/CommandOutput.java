@@ -0,0 +1,61 @@
+package org.poo.main;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.poo.fileio.JSONWritable;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The result of a command whose output is a list of {@link JSONWritable} elements,
+ * such as {@code printUsers} or {@code printTransactions}. It can either be converted to an
+ * {@link ObjectNode} or streamed directly to a {@link JsonGenerator}.
+ */
+final class CommandOutput implements JSONWritable {
+    private final String command;
+    private final List<? extends JSONWritable> output;
+    private final int timestamp;
+
+    CommandOutput(final String command, final List<? extends JSONWritable> output,
+                  final int timestamp) {
+        this.command = command;
+        this.output = output;
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public ObjectNode toObjectNode(final ObjectMapper objectMapper) {
+        final ObjectNode resultNode = objectMapper.createObjectNode();
+
+        resultNode.put("command", command);
+
+        final ArrayNode outputArray = resultNode.putArray("output");
+        for (final JSONWritable element : output) {
+            outputArray.add(element.toObjectNode(objectMapper));
+        }
+
+        resultNode.put("timestamp", timestamp);
+
+        return resultNode;
+    }
+
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+
+        generator.writeStringField("command", command);
+
+        generator.writeArrayFieldStart("output");
+        for (final JSONWritable element : output) {
+            element.writeTo(generator);
+        }
+        generator.writeEndArray();
+
+        generator.writeNumberField("timestamp", timestamp);
+
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,102 @@
+package org.poo.main;
+
+import org.poo.bank.Bank;
+import org.poo.bank.User;
+import org.poo.bank.account.Account;
+import org.poo.bank.card.Card;
+import org.poo.fileio.Command;
+import org.poo.utils.CardNumber;
+
+import java.util.Arrays;
+
+/**
+ * Finds the users whose state a command reads or changes. The emails, IBANs and card numbers
+ * of a command are resolved to the users owning them, so two commands naming the same account
+ * once by IBAN and once by card are seen to conflict. Commands owned by disjoint users can run
+ * at the same time, in any order, and leave the bank as a sequential run would.
+ *
+ * <p>Commands changing the bank itself, like creating accounts, cards or aliases, and the
+ * commands naming something that cannot be resolved, have no owners: they conflict with every
+ * other command. Only such commands change what the identifiers resolve to, or generate
+ * numbers, so the owners found for the commands given between two of them stay valid until
+ * the second one runs.</p>
+ */
+final class CommandOwners {
+    private final Bank bank;
+
+    CommandOwners(final Bank bank) {
+        this.bank = bank;
+    }
+
+    /**
+     * Finds the users owning a command.
+     *
+     * @param command the command.
+     * @return the distinct ids of the users, or {@code null} if the command conflicts with
+     * every other command.
+     */
+    int[] of(final Command command) {
+        return switch (command) {
+            case Command.PrintTransactions c -> users(userOf(c.email()));
+            case Command.AddFunds c -> users(userOf(c.email()), ownerOf(c.account()));
+            case Command.SetMinimumBalance c -> users(ownerOf(c.account()));
+            case Command.CheckCardStatus c -> users(ownerOfCard(c.cardNumber()));
+            case Command.PayOnline c -> isOneTimeCard(c.cardNumber()) ? null
+                    : users(userOf(c.email()), ownerOfCard(c.cardNumber()));
+            case Command.SendMoney c -> users(ownerOf(c.account()), ownerOf(c.receiver()));
+            case Command.AddInterest c -> users(ownerOf(c.account()));
+            case Command.ChangeInterestRate c -> users(ownerOf(c.account()));
+            case Command.Report c -> users(ownerOf(c.account()));
+            case Command.SpendingsReport c -> users(ownerOf(c.account()));
+            case Command.WithdrawSavings c -> users(ownerOf(c.account()));
+            case Command.CashWithdrawal c -> users(userOf(c.email()),
+                    ownerOfCard(c.cardNumber()));
+            default -> null;
+        };
+    }
+
+    /**
+     * @return the distinct ids, or {@code null} if one of the users was not found.
+     */
+    private static int[] users(final int... userIds) {
+        for (final int userId : userIds) {
+            if (userId < 0) {
+                return null;
+            }
+        }
+
+        return Arrays.stream(userIds).distinct().toArray();
+    }
+
+    private int userOf(final String email) {
+        final User user = bank.getUserByEmail(email);
+        return user == null ? -1 : user.getId();
+    }
+
+    /**
+     * Aliases and commerciants are not resolved, so transfers to them have no owners.
+     */
+    private int ownerOf(final String iban) {
+        final Account account = bank.getAccount(iban);
+        return account == null ? -1 : account.getOwnerId();
+    }
+
+    private int ownerOfCard(final String cardNumber) {
+        final Account account = bank.getCardIndex().getAccount(cardNumber);
+        return account == null ? -1 : account.getOwnerId();
+    }
+
+    /**
+     * One-time cards are replaced when used, which generates a card number.
+     */
+    private boolean isOneTimeCard(final String cardNumber) {
+        final CardNumber number = CardNumber.parse(cardNumber);
+        final Account account = bank.getCardIndex().getAccount(number);
+        if (account == null) {
+            return false;
+        }
+
+        final Card card = account.getCard(number);
+        return card != null && card.isOneTime();
+    }
+}
@@ -1,162 +1,216 @@
 package org.poo.main;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.bank.Bank;
 import org.poo.bank.transaction.Transaction;
 import org.poo.bank.User;
-import org.poo.fileio.CommandInput;
+import org.poo.fileio.Command;
+import org.poo.fileio.CommandType;
+import org.poo.fileio.JSONWritable;
+import org.poo.fileio.OutputSink;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 
 public final class CommandRunner {
     private final ObjectMapper objectMapper;
+    private final OutputSink outputSink;
+    private final Bank bank;
+    private final CommandHandler<Command>[] handlers;
 
-    public CommandRunner(final ObjectMapper objectMapper) {
+    public CommandRunner(final ObjectMapper objectMapper, final Bank bank) {
+        this(objectMapper, null, bank);
+    }
+
+    /**
+     * Creates a command runner that streams large results, such as the ones of
+     * {@code printUsers} and {@code printTransactions}, directly to the given sink
+     * if the sink supports it. Such results are not returned by
+     * {@link #executeCommand(Command)}.
+     *
+     * @param objectMapper the mapper used to create the results.
+     * @param outputSink   the sink the results are written to, or {@code null}.
+     * @param bank         the bank the commands are executed in.
+     */
+    @SuppressWarnings("unchecked")
+    public CommandRunner(final ObjectMapper objectMapper, final OutputSink outputSink,
+                         final Bank bank) {
         this.objectMapper = objectMapper;
+        this.outputSink = outputSink;
+        this.bank = bank;
+        this.handlers = new CommandHandler[CommandType.values().length];
+
+        register(CommandType.PRINT_USERS, Command.PrintUsers.class, this::printUsers);
+        register(CommandType.PRINT_TRANSACTIONS, Command.PrintTransactions.class,
+                this::printTransactions);
+        register(CommandType.ADD_ACCOUNT, Command.AddAccount.class, this::addAccount);
+        register(CommandType.ADD_FUNDS, Command.AddFunds.class, this::addFunds);
+        register(CommandType.CREATE_CARD, Command.CreateCard.class, this::createCard);
+        register(CommandType.CREATE_ONE_TIME_CARD, Command.CreateOneTimeCard.class,
+                this::createOneTimeCard);
+        register(CommandType.DELETE_ACCOUNT, Command.DeleteAccount.class, this::deleteAccount);
+        register(CommandType.DELETE_CARD, Command.DeleteCard.class, this::deleteCard);
+        register(CommandType.SET_MINIMUM_BALANCE, Command.SetMinimumBalance.class,
+                this::setMinimumBalance);
+        register(CommandType.CHECK_CARD_STATUS, Command.CheckCardStatus.class,
+                this::checkCardStatus);
+        register(CommandType.PAY_ONLINE, Command.PayOnline.class, this::payOnline);
+        register(CommandType.SEND_MONEY, Command.SendMoney.class, this::sendMoney);
+        register(CommandType.SET_ALIAS, Command.SetAlias.class, this::setAlias);
+        register(CommandType.ADD_INTEREST, Command.AddInterest.class, this::addInterest);
+        register(CommandType.CHANGE_INTEREST_RATE, Command.ChangeInterestRate.class,
+                this::changeInterestRate);
+        register(CommandType.SPLIT_PAYMENT, Command.SplitPayment.class, this::splitPayment);
+        register(CommandType.REPORT, Command.Report.class, this::report);
+        register(CommandType.SPENDINGS_REPORT, Command.SpendingsReport.class,
+                this::spendingsReport);
+        register(CommandType.WITHDRAW_SAVINGS, Command.WithdrawSavings.class,
+                this::withdrawSavings);
+        register(CommandType.UPGRADE_PLAN, Command.UpgradePlan.class, this::upgradePlan);
+        register(CommandType.CASH_WITHDRAWAL, Command.CashWithdrawal.class, this::cashWithdrawal);
+        register(CommandType.ACCEPT_SPLIT_PAYMENT, Command.AcceptSplitPayment.class,
+                this::acceptSplitPayment);
+        register(CommandType.REJECT_SPLIT_PAYMENT, Command.RejectSplitPayment.class,
+                this::rejectSplitPayment);
+        register(CommandType.ADD_NEW_BUSINESS_ASSOCIATE, Command.AddNewBusinessAssociate.class,
+                this::addNewBusinessAssociate);
+        register(CommandType.CHANGE_SPENDING_LIMIT, Command.ChangeSpendingLimit.class,
+                this::changeSpendingLimit);
+        register(CommandType.CHANGE_DEPOSIT_LIMIT, Command.ChangeDepositLimit.class,
+                this::changeDepositLimit);
+        register(CommandType.BUSINESS_REPORT, Command.BusinessReport.class, this::businessReport);
+        register(CommandType.UPDATE_EXCHANGE_RATE, Command.UpdateExchangeRate.class,
+                this::updateExchangeRate);
     }
 
     /**
      * Executes a command based on the input provided. This method acts as a command dispatcher,
-     * directing each command to the corresponding handler method. It utilizes a switch expression
-     * to handle different banking-related operations such as creating accounts, cards,
-     * transactions, and managing user finances.
+     * directing each command to the handler registered for its {@link CommandType}. The
+     * handlers are kept in a table indexed by the command type, so dispatching a command is a
+     * single array access.
      *
-     * @param commandInput the input object containing the command to be executed
-     *                     and relevant parameters.
-     *                     This object encapsulates the details required for executing the command.
+     * @param command the command to be executed, holding the parameters it needs.
      * @return an {@link ObjectNode} representing the result of the executed command.
      * The returned node typically contains status information, operation results,
      * or error messages.
-     * @throws IllegalStateException if the command provided is not recognized or supported.
-     *                               This ensures that unhandled commands do not silently fail.
+     * @throws IllegalStateException if no handler is registered for the command.
      */
-    public ObjectNode executeCommand(final CommandInput commandInput) {
-        return switch (commandInput.getCommand()) {
-            case "printUsers" -> printUsers(commandInput);
-            case "printTransactions" -> printTransactions(commandInput);
-            case "addAccount" -> addAccount(commandInput);
-            case "addFunds" -> addFunds(commandInput);
-            case "createCard" -> createCard(commandInput);
-            case "createOneTimeCard" -> createOneTimeCard(commandInput);
-            case "deleteAccount" -> deleteAccount(commandInput);
-            case "deleteCard" -> deleteCard(commandInput);
-            case "setMinimumBalance" -> setMinimumBalance(commandInput);
-            case "checkCardStatus" -> checkCardStatus(commandInput);
-            case "payOnline" -> payOnline(commandInput);
-            case "sendMoney" -> sendMoney(commandInput);
-            case "setAlias" -> setAlias(commandInput);
-            case "addInterest" -> addInterest(commandInput);
-            case "changeInterestRate" -> changeInterestRate(commandInput);
-            case "splitPayment" -> splitPayment(commandInput);
-            case "report" -> report(commandInput);
-            case "spendingsReport" -> spendingsReport(commandInput);
-            case "withdrawSavings" -> withdrawSavings(commandInput);
-            case "upgradePlan" -> upgradePlan(commandInput);
-            case "cashWithdrawal" -> cashWithdrawal(commandInput);
-            case "acceptSplitPayment" -> acceptSplitPayment(commandInput);
-            case "rejectSplitPayment" -> rejectSplitPayment(commandInput);
-            case "addNewBusinessAssociate" -> addNewBusinessAssociate(commandInput);
-            case "changeSpendingLimit" -> changeSpendingLimit(commandInput);
-            case "changeDepositLimit" -> changeDepositLimit(commandInput);
-            case "businessReport" -> businessReport(commandInput);
-            default -> throw new IllegalStateException("Unexpected value: "
-                    + commandInput.getCommand());
-        };
-    }
-
-    private ObjectNode printUsers(final CommandInput commandInput) {
-        ObjectNode resultNode = objectMapper.createObjectNode();
-
-        resultNode.put("command", "printUsers");
-
-        ArrayNode userArray = resultNode.putArray("output");
-        final List<User> users = Bank.getInstance().getUsers();
-        for (final User user : users) {
-            userArray.add(user.toObjectNode(objectMapper));
+    public ObjectNode executeCommand(final Command command) {
+        final CommandHandler<Command> handler = handlers[command.commandType().ordinal()];
+        if (handler == null) {
+            throw new IllegalStateException("Unexpected value: " + command.commandType());
         }
 
-        resultNode.put("timestamp", commandInput.getTimestamp());
+        return handler.execute(command);
+    }
 
-        return resultNode;
+    /**
+     * Registers the handler of a command type, replacing the previous one if any.
+     *
+     * @param type         the command type.
+     * @param commandClass the record type of the commands of that type.
+     * @param handler      the handler executing the commands.
+     * @param <C>          the record type of the commands.
+     */
+    public <C extends Command> void register(final CommandType type,
+                                             final Class<C> commandClass,
+                                             final CommandHandler<? super C> handler) {
+        handlers[type.ordinal()] = command -> handler.execute(commandClass.cast(command));
     }
 
-    private ObjectNode printTransactions(final CommandInput commandInput) {
-        final String email = commandInput.getEmail();
+    private ObjectNode printUsers(final Command.PrintUsers command) {
+        final List<User> users = bank.getUsers();
 
-        ObjectNode resultNode = objectMapper.createObjectNode();
+        return output(new CommandOutput("printUsers", users, command.timestamp()));
+    }
+
+    private ObjectNode printTransactions(final Command.PrintTransactions command) {
+        final String email = command.email();
+        final List<Transaction> transactions = bank.getTransactions(email);
 
-        resultNode.put("command", "printTransactions");
+        return output(new CommandOutput("printTransactions", transactions,
+                command.timestamp()));
+    }
 
-        ArrayNode output = objectMapper.createArrayNode();
-        final List<Transaction> transactions = Bank.getInstance().getTransactions(email);
-        for (final Transaction transaction : transactions) {
-            output.add(transaction.toObjectNode(objectMapper));
+    /**
+     * Streams the result straight to the output sink when the sink supports it, otherwise
+     * converts it to an {@link ObjectNode} that is returned to the caller.
+     *
+     * @param result the result of the command.
+     * @return the result as an {@link ObjectNode}, or {@code null} if it was already written.
+     */
+    private ObjectNode output(final JSONWritable result) {
+        if (outputSink == null || !outputSink.supportsStreaming()) {
+            return result.toObjectNode(objectMapper);
         }
 
-        resultNode.set("output", output);
-        resultNode.put("timestamp", commandInput.getTimestamp());
+        try {
+            outputSink.write(result);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
 
-        return resultNode;
+        return null;
     }
 
-    private ObjectNode addAccount(final CommandInput commandInput) {
-        final String email = commandInput.getEmail();
-        final String currency = commandInput.getCurrency();
-        final String accountType = commandInput.getAccountType();
-        final double interestRate = commandInput.getInterestRate();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode addAccount(final Command.AddAccount command) {
+        final String email = command.email();
+        final String currency = command.currency();
+        final String accountType = command.accountType();
+        final double interestRate = command.interestRate();
+        final int timestamp = command.timestamp();
 
-        Bank.getInstance().addAccount(email, currency, accountType, interestRate, timestamp);
+        bank.addAccount(email, currency, accountType, interestRate, timestamp);
 
         return null;
     }
 
-    private ObjectNode addFunds(final CommandInput commandInput) {
-        final String iban = commandInput.getAccount();
-        final double amount = commandInput.getAmount();
-        final String email = commandInput.getEmail();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode addFunds(final Command.AddFunds command) {
+        final String iban = command.account();
+        final double amount = command.amount();
+        final String email = command.email();
+        final int timestamp = command.timestamp();
 
-        Bank.getInstance().addFunds(iban, amount, email, timestamp);
+        bank.addFunds(iban, amount, email, timestamp);
 
         return null;
     }
 
-    private ObjectNode createCard(final CommandInput commandInput) {
-        final String iban = commandInput.getAccount();
-        final String email = commandInput.getEmail();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode createCard(final Command.CreateCard command) {
+        final String iban = command.account();
+        final String email = command.email();
+        final int timestamp = command.timestamp();
 
-        Bank.getInstance().createCard(iban, email, timestamp);
+        bank.createCard(iban, email, timestamp);
 
         return null;
     }
 
-    private ObjectNode createOneTimeCard(final CommandInput commandInput) {
-        final String iban = commandInput.getAccount();
-        final String email = commandInput.getEmail();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode createOneTimeCard(final Command.CreateOneTimeCard command) {
+        final String iban = command.account();
+        final String email = command.email();
+        final int timestamp = command.timestamp();
 
-        Bank.getInstance().createOneTimeCard(iban, email, timestamp);
+        bank.createOneTimeCard(iban, email, timestamp);
 
         return null;
     }
 
 
-    private ObjectNode deleteAccount(final CommandInput commandInput) {
-        final String iban = commandInput.getAccount();
-        final String email = commandInput.getEmail();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode deleteAccount(final Command.DeleteAccount command) {
+        final String iban = command.account();
+        final String email = command.email();
+        final int timestamp = command.timestamp();
 
         final ObjectNode resultNode = objectMapper.createObjectNode();
 
         resultNode.put("command", "deleteAccount");
         final ObjectNode output = objectMapper.createObjectNode();
 
-        final String result = Bank.getInstance().deleteAccount(iban, email, timestamp);
+        final String result = bank.deleteAccount(iban, email, timestamp);
         if (result == null) {
             output.put("success", "Account deleted");
         } else {
@@ -171,29 +225,29 @@ public final class CommandRunner {
         return resultNode;
     }
 
-    private ObjectNode deleteCard(final CommandInput commandInput) {
-        final String cardNumber = commandInput.getCardNumber();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode deleteCard(final Command.DeleteCard command) {
+        final String cardNumber = command.cardNumber();
+        final int timestamp = command.timestamp();
 
-        Bank.getInstance().deleteCard(cardNumber, timestamp);
+        bank.deleteCard(cardNumber, timestamp);
 
         return null;
     }
 
-    private ObjectNode setMinimumBalance(final CommandInput commandInput) {
-        final double amount = commandInput.getAmount();
-        final String iban = commandInput.getAccount();
+    private ObjectNode setMinimumBalance(final Command.SetMinimumBalance command) {
+        final double amount = command.amount();
+        final String iban = command.account();
 
-        Bank.getInstance().setMinBalance(iban, amount);
+        bank.setMinBalance(iban, amount);
 
         return null;
     }
 
-    private ObjectNode checkCardStatus(final CommandInput commandInput) {
-        final String cardNumber = commandInput.getCardNumber();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode checkCardStatus(final Command.CheckCardStatus command) {
+        final String cardNumber = command.cardNumber();
+        final int timestamp = command.timestamp();
 
-        final String status = Bank.getInstance().checkCardStatus(cardNumber, timestamp);
+        final String status = bank.checkCardStatus(cardNumber, timestamp);
         if (status != null) {
             final ObjectNode resultNode = objectMapper.createObjectNode();
             resultNode.put("command", "checkCardStatus");
@@ -211,16 +265,16 @@ public final class CommandRunner {
         return null;
     }
 
-    private ObjectNode payOnline(final CommandInput commandInput) {
-        final String cardNumber = commandInput.getCardNumber();
-        final double amount = commandInput.getAmount();
-        final String currency = commandInput.getCurrency();
-        final String description = commandInput.getDescription();
-        final String commerciant = commandInput.getCommerciant();
-        final String email = commandInput.getEmail();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode payOnline(final Command.PayOnline command) {
+        final String cardNumber = command.cardNumber();
+        final double amount = command.amount();
+        final String currency = command.currency();
+        final String description = command.description();
+        final String commerciant = command.commerciant();
+        final String email = command.email();
+        final int timestamp = command.timestamp();
 
-        final String result = Bank.getInstance().payOnline(email, cardNumber, amount,
+        final String result = bank.payOnline(email, cardNumber, amount,
                 currency, description, commerciant, timestamp);
 
         if (result == null) {
@@ -240,14 +294,14 @@ public final class CommandRunner {
         return resultNode;
     }
 
-    private ObjectNode sendMoney(final CommandInput commandInput) {
-        final String iban = commandInput.getAccount();
-        final double amount = commandInput.getAmount();
-        final String receiver = commandInput.getReceiver();
-        final String description = commandInput.getDescription();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode sendMoney(final Command.SendMoney command) {
+        final String iban = command.account();
+        final double amount = command.amount();
+        final String receiver = command.receiver();
+        final String description = command.description();
+        final int timestamp = command.timestamp();
 
-        final String result = Bank.getInstance().sendMoney(iban, receiver, amount, description,
+        final String result = bank.sendMoney(iban, receiver, amount, description,
                 timestamp);
         if (result == null) {
             return null;
@@ -267,21 +321,21 @@ public final class CommandRunner {
         return resultNode;
     }
 
-    private ObjectNode setAlias(final CommandInput commandInput) {
-        final String iban = commandInput.getAccount();
-        final String email = commandInput.getEmail();
-        final String alias = commandInput.getAlias();
+    private ObjectNode setAlias(final Command.SetAlias command) {
+        final String iban = command.account();
+        final String email = command.email();
+        final String alias = command.alias();
 
-        Bank.getInstance().setAlias(iban, email, alias);
+        bank.setAlias(iban, email, alias);
 
         return null;
     }
 
-    private ObjectNode addInterest(final CommandInput commandInput) {
-        final String iban = commandInput.getAccount();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode addInterest(final Command.AddInterest command) {
+        final String iban = command.account();
+        final int timestamp = command.timestamp();
 
-        final String result = Bank.getInstance().addInterest(iban, timestamp);
+        final String result = bank.addInterest(iban, timestamp);
         if (result == null) {
             return null;
         }
@@ -298,12 +352,12 @@ public final class CommandRunner {
         return resultNode;
     }
 
-    private ObjectNode changeInterestRate(final CommandInput commandInput) {
-        final String iban = commandInput.getAccount();
-        final double interestRate = commandInput.getInterestRate();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode changeInterestRate(final Command.ChangeInterestRate command) {
+        final String iban = command.account();
+        final double interestRate = command.interestRate();
+        final int timestamp = command.timestamp();
 
-        final String result = Bank.getInstance().changeInterestRate(iban, interestRate, timestamp);
+        final String result = bank.changeInterestRate(iban, interestRate, timestamp);
         if (result == null) {
             return null;
         }
@@ -320,30 +374,30 @@ public final class CommandRunner {
         return resultNode;
     }
 
-    private ObjectNode splitPayment(final CommandInput commandInput) {
-        final List<String> accounts = commandInput.getAccounts();
-        final int timestamp = commandInput.getTimestamp();
-        final String currency = commandInput.getCurrency();
-        final double amount = commandInput.getAmount();
-        final String splitPaymentType = commandInput.getSplitPaymentType();
-        final List<Double> amounts = commandInput.getAmountForUsers();
+    private ObjectNode splitPayment(final Command.SplitPayment command) {
+        final List<String> accounts = command.accounts();
+        final int timestamp = command.timestamp();
+        final String currency = command.currency();
+        final double amount = command.amount();
+        final String splitPaymentType = command.splitPaymentType();
+        final double[] amounts = command.amountForUsers();
 
-        Bank.getInstance().splitPayment(accounts, splitPaymentType, amounts, amount, currency,
+        bank.splitPayment(accounts, splitPaymentType, amounts, amount, currency,
                 timestamp);
 
         return null;
     }
 
-    private ObjectNode report(final CommandInput commandInput) {
-        final int startTimestamp = commandInput.getStartTimestamp();
-        final int endTimestamp = commandInput.getEndTimestamp();
-        final String iban = commandInput.getAccount();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode report(final Command.Report command) {
+        final int startTimestamp = command.startTimestamp();
+        final int endTimestamp = command.endTimestamp();
+        final String iban = command.account();
+        final int timestamp = command.timestamp();
 
         final ObjectNode resultNode = objectMapper.createObjectNode();
         resultNode.put("command", "report");
 
-        ObjectNode result = Bank.getInstance()
+        ObjectNode result = bank
                 .getReport(objectMapper, iban, startTimestamp, endTimestamp);
         if (result == null) {
             result = objectMapper.createObjectNode();
@@ -357,16 +411,16 @@ public final class CommandRunner {
         return resultNode;
     }
 
-    private ObjectNode spendingsReport(final CommandInput commandInput) {
-        final int startTimestamp = commandInput.getStartTimestamp();
-        final int endTimestamp = commandInput.getEndTimestamp();
-        final String iban = commandInput.getAccount();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode spendingsReport(final Command.SpendingsReport command) {
+        final int startTimestamp = command.startTimestamp();
+        final int endTimestamp = command.endTimestamp();
+        final String iban = command.account();
+        final int timestamp = command.timestamp();
 
         final ObjectNode resultNode = objectMapper.createObjectNode();
         resultNode.put("command", "spendingsReport");
 
-        ObjectNode result = Bank.getInstance().getSpendingsReport(objectMapper,
+        ObjectNode result = bank.getSpendingsReport(objectMapper,
                 iban, startTimestamp, endTimestamp);
         if (result == null) {
             result = objectMapper.createObjectNode();
@@ -380,23 +434,23 @@ public final class CommandRunner {
         return resultNode;
     }
 
-    private ObjectNode withdrawSavings(final CommandInput commandInput) {
-        final String account = commandInput.getAccount();
-        final double amount = commandInput.getAmount();
-        final String currency = commandInput.getCurrency();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode withdrawSavings(final Command.WithdrawSavings command) {
+        final String account = command.account();
+        final double amount = command.amount();
+        final String currency = command.currency();
+        final int timestamp = command.timestamp();
 
-        Bank.getInstance().withdrawSavings(account, amount, currency, timestamp);
+        bank.withdrawSavings(account, amount, currency, timestamp);
 
         return null;
     }
 
-    private ObjectNode upgradePlan(final CommandInput commandInput) {
-        final String iban = commandInput.getAccount();
-        final String planType = commandInput.getNewPlanType();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode upgradePlan(final Command.UpgradePlan command) {
+        final String iban = command.account();
+        final String planType = command.newPlanType();
+        final int timestamp = command.timestamp();
 
-        final String result = Bank.getInstance().upgradePlan(iban, planType, timestamp);
+        final String result = bank.upgradePlan(iban, planType, timestamp);
 
         if (result == null) {
             return null;
@@ -416,13 +470,13 @@ public final class CommandRunner {
         return resultNode;
     }
 
-    private ObjectNode cashWithdrawal(final CommandInput commandInput) {
-        final String card = commandInput.getCardNumber();
-        final double amount = commandInput.getAmount();
-        final String email = commandInput.getEmail();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode cashWithdrawal(final Command.CashWithdrawal command) {
+        final String card = command.cardNumber();
+        final double amount = command.amount();
+        final String email = command.email();
+        final int timestamp = command.timestamp();
 
-        final String result = Bank.getInstance().cashWithdrawal(email, card, amount, timestamp);
+        final String result = bank.cashWithdrawal(email, card, amount, timestamp);
         if (result == null) {
             return null;
         }
@@ -441,10 +495,10 @@ public final class CommandRunner {
         return resultNode;
     }
 
-    private ObjectNode acceptSplitPayment(final CommandInput commandInput) {
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode acceptSplitPayment(final Command.AcceptSplitPayment command) {
+        final int timestamp = command.timestamp();
 
-        final String result = Bank.getInstance().acceptSplitPayment(commandInput.getEmail());
+        final String result = bank.acceptSplitPayment(command.email());
 
         if (result == null) {
             return null;
@@ -464,10 +518,10 @@ public final class CommandRunner {
         return resultNode;
     }
 
-    private ObjectNode rejectSplitPayment(final CommandInput commandInput) {
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode rejectSplitPayment(final Command.RejectSplitPayment command) {
+        final int timestamp = command.timestamp();
 
-        final String result = Bank.getInstance().rejectSplitPayment(commandInput.getEmail());
+        final String result = bank.rejectSplitPayment(command.email());
 
         if (result == null) {
             return null;
@@ -487,23 +541,23 @@ public final class CommandRunner {
         return resultNode;
     }
 
-    private ObjectNode addNewBusinessAssociate(final CommandInput commandInput) {
-        final String iban = commandInput.getAccount();
-        final String role = commandInput.getRole();
-        final String email = commandInput.getEmail();
+    private ObjectNode addNewBusinessAssociate(final Command.AddNewBusinessAssociate command) {
+        final String iban = command.account();
+        final String role = command.role();
+        final String email = command.email();
 
-        Bank.getInstance().addNewBusinessAssociate(iban, role, email);
+        bank.addNewBusinessAssociate(iban, role, email);
 
         return null;
     }
 
-    private ObjectNode changeSpendingLimit(final CommandInput commandInput) {
-        final String iban = commandInput.getAccount();
-        final String email = commandInput.getEmail();
-        final double limit = commandInput.getAmount();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode changeSpendingLimit(final Command.ChangeSpendingLimit command) {
+        final String iban = command.account();
+        final String email = command.email();
+        final double limit = command.amount();
+        final int timestamp = command.timestamp();
 
-        final String result = Bank.getInstance().changeSpendingLimit(iban, email, limit);
+        final String result = bank.changeSpendingLimit(iban, email, limit);
 
         if (result == null) {
             return null;
@@ -523,13 +577,13 @@ public final class CommandRunner {
         return resultNode;
     }
 
-    private ObjectNode changeDepositLimit(final CommandInput commandInput) {
-        final String iban = commandInput.getAccount();
-        final String email = commandInput.getEmail();
-        final double limit = commandInput.getAmount();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode changeDepositLimit(final Command.ChangeDepositLimit command) {
+        final String iban = command.account();
+        final String email = command.email();
+        final double limit = command.amount();
+        final int timestamp = command.timestamp();
 
-        final String result = Bank.getInstance().changeDepositLimit(iban, email, limit);
+        final String result = bank.changeDepositLimit(iban, email, limit);
 
         if (result == null) {
             return null;
@@ -549,18 +603,18 @@ public final class CommandRunner {
         return resultNode;
     }
 
-    private ObjectNode businessReport(final CommandInput commandInput) {
-        final String type = commandInput.getType();
-        final int startTimestamp = commandInput.getStartTimestamp();
-        final int endTimestamp = commandInput.getEndTimestamp();
-        final String account = commandInput.getAccount();
-        final int timestamp = commandInput.getTimestamp();
+    private ObjectNode businessReport(final Command.BusinessReport command) {
+        final String type = command.type();
+        final int startTimestamp = command.startTimestamp();
+        final int endTimestamp = command.endTimestamp();
+        final String account = command.account();
+        final int timestamp = command.timestamp();
 
         final ObjectNode resultNode = objectMapper.createObjectNode();
 
         resultNode.put("command", "businessReport");
 
-        final ObjectNode outputNode = Bank.getInstance().businessReport(objectMapper, type,
+        final ObjectNode outputNode = bank.businessReport(objectMapper, type,
                 startTimestamp, endTimestamp, account);
 
         resultNode.set("output", outputNode);
@@ -568,4 +622,28 @@ public final class CommandRunner {
 
         return resultNode;
     }
+
+    private ObjectNode updateExchangeRate(final Command.UpdateExchangeRate command) {
+        final int timestamp = command.timestamp();
+
+        final String result = bank.updateExchangeRate(command.from(), command.to(),
+                command.rate());
+
+        if (result == null) {
+            return null;
+        }
+
+        final ObjectNode resultNode = objectMapper.createObjectNode();
+        resultNode.put("command", "updateExchangeRate");
+
+        final ObjectNode outputNode = objectMapper.createObjectNode();
+        outputNode.put("timestamp", timestamp);
+        outputNode.put("description", result);
+
+        resultNode.set("output", outputNode);
+
+        resultNode.put("timestamp", timestamp);
+
+        return resultNode;
+    }
 }
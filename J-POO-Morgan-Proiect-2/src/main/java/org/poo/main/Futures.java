@@ -0,0 +1,35 @@
+package org.poo.main;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Helpers for the runners executing commands on other threads, so their failures are reported
+ * the same way as the ones of {@link Main#run}.
+ */
+final class Futures {
+    private Futures() {
+    }
+
+    /**
+     * Waits for the result of a command, throwing the exception of the command as it is
+     * instead of wrapped in a {@link CompletionException}.
+     *
+     * @param result the future result of the command.
+     * @param <T>    the type of the result.
+     * @return the result.
+     */
+    static <T> T join(final CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.poo.main;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.poo.fileio.CommandSource;
+import org.poo.fileio.NdjsonCommandReader;
+import org.poo.fileio.NdjsonSink;
+import org.poo.fileio.OutputSink;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Runs the bank as a continuous processor over an append-only command log.
+ *
+ * <p>Usage: {@code LogRunner <header.json> <commands.ndjson> <output|-> [--follow]
+ * [--poll=<millis>]}</p>
+ *
+ * <p>The header holds the users, exchange rates and commerciants, and the log holds one command
+ * per line. Each result is written as one line of JSON as soon as its command has run, to the
+ * output file or to the standard output when the output is {@code -}. With {@code --follow},
+ * the runner keeps waiting for new commands at the end of the log, like {@code tail -f}, until
+ * it is stopped.</p>
+ */
+public final class LogRunner {
+    private static final int MIN_ARGS = 3;
+    private static final String FOLLOW_FLAG = "--follow";
+    private static final String POLL_FLAG = "--poll=";
+    private static final String STDOUT = "-";
+
+    /**
+     * for coding style
+     */
+    private LogRunner() {
+    }
+
+    /**
+     * @param args the header file, the command log, the output and the optional flags
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < MIN_ARGS) {
+            System.err.println("Usage: LogRunner <header.json> <commands.ndjson> <output|->"
+                    + " [" + FOLLOW_FLAG + "] [" + POLL_FLAG + "<millis>]");
+            return;
+        }
+
+        boolean follow = false;
+        long pollInterval = NdjsonCommandReader.DEFAULT_POLL_INTERVAL;
+        for (int i = MIN_ARGS; i < args.length; i++) {
+            if (args[i].equals(FOLLOW_FLAG)) {
+                follow = true;
+            } else if (args[i].startsWith(POLL_FLAG)) {
+                pollInterval = Long.parseLong(args[i].substring(POLL_FLAG.length()));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        OutputStream outputStream = args[2].equals(STDOUT)
+                ? new NonClosingOutputStream(System.out) : new FileOutputStream(args[2]);
+
+        try (CommandSource source = new NdjsonCommandReader(objectMapper, new File(args[0]),
+                new File(args[1]), follow, pollInterval);
+             OutputSink sink = new NdjsonSink(objectMapper, outputStream)) {
+            Main.run(objectMapper, source, sink);
+        }
+    }
+
+    /**
+     * Stream writing to the standard output, which the runner does not own: closing it only
+     * flushes, so the standard output stays usable after the sink is closed.
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length)
+                throws IOException {
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -1,14 +1,11 @@
 package org.poo.main;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.bank.Bank;
 import org.poo.checker.Checker;
 import org.poo.checker.CheckerConstants;
 import org.poo.fileio.*;
-import org.poo.utils.Utils;
 
 import java.io.File;
 import java.io.IOException;
@@ -17,6 +14,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -65,6 +63,31 @@ public final class Main {
         Checker.calculateScore();
     }
 
+    /**
+     * Empties the result directory, creating it if needed, and lists the input files in the
+     * order of their test numbers, the same way {@link #main} does, which is left as given.
+     *
+     * @return the input files, sorted by test number
+     * @throws IOException if the result directory cannot be created
+     */
+    static List<File> prepareTests() throws IOException {
+        File directory = new File(CheckerConstants.TESTS_PATH);
+        Path path = Paths.get(CheckerConstants.RESULT_PATH);
+
+        if (Files.exists(path)) {
+            File resultFile = new File(String.valueOf(path));
+            for (File file : Objects.requireNonNull(resultFile.listFiles())) {
+                file.delete();
+            }
+            resultFile.delete();
+        }
+        Files.createDirectories(path);
+
+        return Arrays.stream(Objects.requireNonNull(directory.listFiles()))
+                .sorted(Comparator.comparingInt(Main::fileConsumer))
+                .toList();
+    }
+
     /**
      * @param filePath1 for input file
      * @param filePath2 for output file
@@ -72,31 +95,93 @@ public final class Main {
      */
     public static void action(final String filePath1,
                               final String filePath2) throws IOException {
+        action(filePath1, filePath2, RunOptions.fromSystemProperties());
+    }
+
+    /**
+     * @param filePath1 for input file
+     * @param filePath2 for output file
+     * @param options   selecting how the input file is read and the output file written
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void action(final String filePath1, final String filePath2,
+                              final RunOptions options) throws IOException {
         ObjectMapper objectMapper = new ObjectMapper();
         File file = new File(CheckerConstants.TESTS_PATH + filePath1);
-        ObjectInput inputData = objectMapper.readValue(file, ObjectInput.class);
 
-        UserInput[] users = inputData.getUsers();
-        ExchangeInput[] rates = inputData.getExchangeRates();
-        CommerciantInput[] commerciants = inputData.getCommerciants();
+        try (CommandSource source = openSource(objectMapper, file, options);
+             OutputSink sink = openSink(objectMapper, new File(filePath2), options)) {
+            if (options.isActors()) {
+                ActorRunner.run(objectMapper, source, sink);
+            } else if (options.isPartitioned()) {
+                PartitionedRunner.run(objectMapper, source, sink);
+            } else {
+                run(objectMapper, source, sink);
+            }
+        }
+    }
 
-        Bank bank = Bank.getInstance();
-        bank.initializeBank(users, rates, commerciants);
-        Utils.resetRandom();
+    /**
+     * Opens the input file, either through a buffered stream or by memory mapping it.
+     */
+    private static CommandSource openSource(final ObjectMapper objectMapper, final File file,
+                                            final RunOptions options) throws IOException {
+        if (options.isMemoryMapped()) {
+            return new JsonCommandReader(objectMapper, MappedJsonParser.open(
+                    objectMapper.getFactory(), file, options.getMappedChunkSize()));
+        }
 
-        ArrayNode outputData = objectMapper.createArrayNode();
-        CommandRunner commandRunner = new CommandRunner(objectMapper);
-        CommandInput[] commandInputs = inputData.getCommands();
+        return new JsonCommandReader(objectMapper, file);
+    }
 
-        for (CommandInput commandInput : commandInputs) {
-            ObjectNode result = commandRunner.executeCommand(commandInput);
+    /**
+     * Opens the output file, written either by the thread running the commands or by a
+     * dedicated writer thread, indented unless compact output was asked for and flushed at
+     * the configured interval.
+     *
+     * @param objectMapper the mapper used to write the results.
+     * @param file         the output file.
+     * @param options      selecting how the output file is written.
+     * @return the sink writing to the file.
+     * @throws IOException if the file cannot be opened.
+     */
+    static OutputSink openSink(final ObjectMapper objectMapper, final File file,
+                               final RunOptions options) throws IOException {
+        OutputSink sink = new JsonGeneratorSink(objectMapper, file, !options.isCompact(),
+                options.getFlushInterval());
+        if (options.isAsyncOutput()) {
+            return new AsyncOutputSink(sink, options.getAsyncCapacity());
+        }
+
+        return sink;
+    }
+
+    /**
+     * Initializes the bank with the data of the source, then executes the commands of the
+     * source one by one, writing their results to the sink as soon as they are produced.
+     *
+     * @param objectMapper the mapper used to create the results.
+     * @param source       the source of the bank data and of the commands.
+     * @param sink         the sink receiving the results.
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void run(final ObjectMapper objectMapper, final CommandSource source,
+                           final OutputSink sink) throws IOException {
+        Bank bank = new Bank();
+        bank.initializeBank(source.getUsers(), source.getExchangeRates(),
+                source.getCommerciants());
+
+        CommandRunner commandRunner = new CommandRunner(objectMapper, sink, bank);
+        Command command = source.nextCommand();
+
+        while (command != null) {
+            ObjectNode result = commandRunner.executeCommand(command);
             if (result != null) {
-                outputData.add(result);
+                sink.write(result);
             }
-        }
 
-        ObjectWriter objectWriter = objectMapper.writerWithDefaultPrettyPrinter();
-        objectWriter.writeValue(new File(filePath2), outputData);
+            command = source.nextCommand();
+        }
     }
 
     /**
@@ -0,0 +1,89 @@
+package org.poo.main;
+
+import org.poo.checker.Checker;
+import org.poo.checker.CheckerConstants;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the tests like {@link Main}, but several input files at the same time, on a fixed
+ * pool of threads. Every file is run on its own {@link org.poo.bank.Bank}, with its own IBAN
+ * and card number generators, so the output of every file is the same as in a sequential run.
+ *
+ * <p>Usage: {@code ParallelRunner [--threads=<n>] [options]}, where the options are the ones
+ * of {@link RunOptions}. The number of threads defaults to the number of processors.</p>
+ */
+public final class ParallelRunner {
+    /**
+     * for coding style
+     */
+    private ParallelRunner() {
+    }
+
+    /**
+     * @param args options, see {@link RunOptions#parse}
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void main(final String[] args) throws IOException {
+        RunOptions options = RunOptions.parse(args);
+        if (options.getThreads() <= 0) {
+            throw new IllegalArgumentException("Invalid number of threads: "
+                    + options.getThreads());
+        }
+
+        List<File> sortedFiles = Main.prepareTests();
+
+        ExecutorService pool = Executors.newFixedThreadPool(options.getThreads());
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (File file : sortedFiles) {
+                String filepath = CheckerConstants.OUT_PATH + file.getName();
+                runs.add(pool.submit(() -> {
+                    try {
+                        Main.action(file.getName(), filepath, options);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+
+            for (Future<?> run : runs) {
+                await(run);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Checker.calculateScore();
+    }
+
+    /**
+     * Waits for a file to be run, rethrowing the exception it failed with.
+     */
+    private static void await(final Future<?> run) throws IOException {
+        try {
+            run.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the runs");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
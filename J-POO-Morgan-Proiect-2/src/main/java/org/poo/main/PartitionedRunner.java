@@ -0,0 +1,138 @@
+package org.poo.main;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.poo.bank.Bank;
+import org.poo.fileio.Command;
+import org.poo.fileio.CommandSource;
+import org.poo.fileio.OutputSink;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs the commands of an input in parallel, on a fork/join pool, while producing the same
+ * output as {@link Main#run}. The commands are read in batches ending before the next command
+ * that conflicts with every other one, as found by {@link CommandOwners}. Inside a batch, a
+ * command depends on the last earlier command sharing one of its users, which gives a graph
+ * where commands of disjoint users run at the same time and commands of one user run in the
+ * order they were given. The commands conflicting with everything run alone, between batches.
+ *
+ * <p>The results of a batch are written in the order of the commands once they are
+ * available.</p>
+ */
+public final class PartitionedRunner {
+    /**
+     * The maximum number of commands analyzed at once, bounding the memory used by a batch.
+     */
+    private static final int MAX_BATCH = 4096;
+
+    private final CommandOwners owners;
+    private final CommandRunner commandRunner;
+    private final OutputSink sink;
+    private final ForkJoinPool pool;
+    private final List<Command> batch;
+    private final List<int[]> batchOwners;
+
+    private PartitionedRunner(final ObjectMapper objectMapper, final Bank bank,
+                              final OutputSink sink, final ForkJoinPool pool) {
+        this.owners = new CommandOwners(bank);
+        // results are written here in command order, so nothing is streamed to the sink
+        this.commandRunner = new CommandRunner(objectMapper, bank);
+        this.sink = sink;
+        this.pool = pool;
+        this.batch = new ArrayList<>();
+        this.batchOwners = new ArrayList<>();
+    }
+
+    /**
+     * Initializes the bank with the data of the source, then executes the commands of the
+     * source on the common fork/join pool, writing the results to the sink in command order.
+     *
+     * @param objectMapper the mapper used to create the results.
+     * @param source       the source of the bank data and of the commands.
+     * @param sink         the sink receiving the results.
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void run(final ObjectMapper objectMapper, final CommandSource source,
+                           final OutputSink sink) throws IOException {
+        final Bank bank = new Bank();
+        bank.initializeBank(source.getUsers(), source.getExchangeRates(),
+                source.getCommerciants());
+
+        final PartitionedRunner runner = new PartitionedRunner(objectMapper, bank, sink,
+                ForkJoinPool.commonPool());
+        Command command = source.nextCommand();
+        while (command != null) {
+            runner.add(command);
+            command = source.nextCommand();
+        }
+
+        runner.flush();
+    }
+
+    private void add(final Command command) throws IOException {
+        final int[] userIds = owners.of(command);
+        if (userIds == null) {
+            flush();
+            write(commandRunner.executeCommand(command));
+            return;
+        }
+
+        batch.add(command);
+        batchOwners.add(userIds);
+        if (batch.size() == MAX_BATCH) {
+            flush();
+        }
+    }
+
+    /**
+     * Runs the commands of the batch, then writes their results.
+     */
+    private void flush() throws IOException {
+        final List<CompletableFuture<ObjectNode>> results = new ArrayList<>(batch.size());
+        final Map<Integer, CompletableFuture<ObjectNode>> lastByUser = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            final Command command = batch.get(i);
+            final int[] userIds = batchOwners.get(i);
+
+            final CompletableFuture<?>[] dependencies = new CompletableFuture<?>[userIds.length];
+            int size = 0;
+            for (final int userId : userIds) {
+                final CompletableFuture<ObjectNode> last = lastByUser.get(userId);
+                if (last != null) {
+                    dependencies[size++] = last;
+                }
+            }
+
+            final CompletableFuture<ObjectNode> result = size == 0
+                    ? CompletableFuture.supplyAsync(() -> commandRunner.executeCommand(command),
+                            pool)
+                    : CompletableFuture.allOf(Arrays.copyOf(dependencies, size))
+                            .thenApplyAsync(ignored -> commandRunner.executeCommand(command),
+                                    pool);
+            for (final int userId : userIds) {
+                lastByUser.put(userId, result);
+            }
+            results.add(result);
+        }
+
+        batch.clear();
+        batchOwners.clear();
+        for (final CompletableFuture<ObjectNode> result : results) {
+            write(Futures.join(result));
+        }
+    }
+
+    private void write(final ObjectNode result) throws IOException {
+        if (result != null) {
+            sink.write(result);
+        }
+    }
+}
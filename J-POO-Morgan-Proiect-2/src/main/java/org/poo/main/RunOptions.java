@@ -0,0 +1,173 @@
+package org.poo.main;
+
+import lombok.Getter;
+import org.poo.fileio.AsyncOutputSink;
+import org.poo.fileio.JsonGeneratorSink;
+import org.poo.fileio.MappedJsonParser;
+
+/**
+ * Options selecting how the runners read their input and write their output. Every option
+ * can be set either as a system property, which is how {@link Main#main} is configured, or as
+ * a command line flag, which takes precedence over the property.
+ */
+@Getter
+public final class RunOptions {
+    /**
+     * Flag and property reading the input file through memory mapping.
+     */
+    public static final String MMAP_FLAG = "--mmap";
+    public static final String MMAP_PROPERTY = "poo.mmap";
+
+    /**
+     * Flag and property setting the number of bytes mapped at once, in memory mapped mode.
+     */
+    public static final String MMAP_CHUNK_FLAG = "--mmap-chunk=";
+    public static final String MMAP_CHUNK_PROPERTY = "poo.mmap.chunk";
+
+    /**
+     * Flag and property writing the output on a separate thread.
+     */
+    public static final String ASYNC_FLAG = "--async";
+    public static final String ASYNC_PROPERTY = "poo.async";
+
+    /**
+     * Flag and property setting the number of results waiting for the writer thread before
+     * the commands are paused, in asynchronous mode.
+     */
+    public static final String ASYNC_CAPACITY_FLAG = "--async-capacity=";
+    public static final String ASYNC_CAPACITY_PROPERTY = "poo.async.capacity";
+
+    /**
+     * Flag and property setting the number of inputs run at the same time by
+     * {@link ParallelRunner}.
+     */
+    public static final String THREADS_FLAG = "--threads=";
+    public static final String THREADS_PROPERTY = "poo.threads";
+
+    /**
+     * Flag and property running the commands of an input on one actor per user, with
+     * {@link ActorRunner}.
+     */
+    public static final String ACTORS_FLAG = "--actors";
+    public static final String ACTORS_PROPERTY = "poo.actors";
+
+    /**
+     * Flag and property running the commands of an input in parallel, on a fork/join pool,
+     * with {@link PartitionedRunner}.
+     */
+    public static final String PARTITIONED_FLAG = "--partitioned";
+    public static final String PARTITIONED_PROPERTY = "poo.partitioned";
+
+    /**
+     * Flag and property setting the number of results written between two flushes of the
+     * output file, {@code 0} flushing it only when it is closed.
+     */
+    public static final String FLUSH_INTERVAL_FLAG = "--flush-interval=";
+    public static final String FLUSH_INTERVAL_PROPERTY = "poo.flush.interval";
+
+    /**
+     * Flag and property writing the output on a single line, without the pretty printer.
+     */
+    public static final String COMPACT_FLAG = "--compact";
+    public static final String COMPACT_PROPERTY = "poo.compact";
+
+    private boolean memoryMapped;
+    private long mappedChunkSize;
+    private boolean asyncOutput;
+    private int asyncCapacity;
+    private int threads;
+    private boolean actors;
+    private boolean partitioned;
+    private int flushInterval;
+    private boolean compact;
+
+    /**
+     * Reads the options set through system properties. The flags are applied on top of them
+     * by {@link #parse}, before the options are handed out.
+     */
+    private RunOptions() {
+        this.memoryMapped = Boolean.getBoolean(MMAP_PROPERTY);
+        this.mappedChunkSize = checkChunkSize(Long.getLong(MMAP_CHUNK_PROPERTY,
+                MappedJsonParser.DEFAULT_CHUNK_SIZE), MMAP_CHUNK_PROPERTY);
+        this.asyncOutput = Boolean.getBoolean(ASYNC_PROPERTY);
+        this.asyncCapacity = Integer.getInteger(ASYNC_CAPACITY_PROPERTY,
+                AsyncOutputSink.DEFAULT_CAPACITY);
+        this.threads = Integer.getInteger(THREADS_PROPERTY,
+                Runtime.getRuntime().availableProcessors());
+        this.actors = Boolean.getBoolean(ACTORS_PROPERTY);
+        this.partitioned = Boolean.getBoolean(PARTITIONED_PROPERTY);
+        this.flushInterval = checkFlushInterval(Integer.getInteger(FLUSH_INTERVAL_PROPERTY,
+                JsonGeneratorSink.DEFAULT_FLUSH_INTERVAL), FLUSH_INTERVAL_PROPERTY);
+        this.compact = Boolean.getBoolean(COMPACT_PROPERTY);
+    }
+
+    /**
+     * @return the options set through system properties.
+     */
+    public static RunOptions fromSystemProperties() {
+        return new RunOptions();
+    }
+
+    /**
+     * Reads the options from command line flags, on top of the system properties.
+     *
+     * @param args the command line flags.
+     * @return the options.
+     * @throws IllegalArgumentException if a flag is not recognized or has an invalid value.
+     */
+    public static RunOptions parse(final String[] args) {
+        final RunOptions options = new RunOptions();
+
+        for (final String arg : args) {
+            if (arg.equals(MMAP_FLAG)) {
+                options.memoryMapped = true;
+            } else if (arg.startsWith(MMAP_CHUNK_FLAG)) {
+                options.memoryMapped = true;
+                options.mappedChunkSize = checkChunkSize(
+                        Long.parseLong(arg.substring(MMAP_CHUNK_FLAG.length())), MMAP_CHUNK_FLAG);
+            } else if (arg.equals(ASYNC_FLAG)) {
+                options.asyncOutput = true;
+            } else if (arg.startsWith(ASYNC_CAPACITY_FLAG)) {
+                options.asyncOutput = true;
+                options.asyncCapacity = Integer.parseInt(
+                        arg.substring(ASYNC_CAPACITY_FLAG.length()));
+            } else if (arg.startsWith(THREADS_FLAG)) {
+                options.threads = Integer.parseInt(arg.substring(THREADS_FLAG.length()));
+            } else if (arg.equals(ACTORS_FLAG)) {
+                options.actors = true;
+            } else if (arg.equals(PARTITIONED_FLAG)) {
+                options.partitioned = true;
+            } else if (arg.startsWith(FLUSH_INTERVAL_FLAG)) {
+                options.flushInterval = checkFlushInterval(
+                        Integer.parseInt(arg.substring(FLUSH_INTERVAL_FLAG.length())),
+                        FLUSH_INTERVAL_FLAG);
+            } else if (arg.equals(COMPACT_FLAG)) {
+                options.compact = true;
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        return options;
+    }
+
+    private static long checkChunkSize(final long chunkSize, final String option) {
+        if (!MappedJsonParser.isValidChunkSize(chunkSize)) {
+            throw new IllegalArgumentException("Invalid " + option + " " + chunkSize
+                    + ": the chunk size must be a multiple of "
+                    + MappedJsonParser.MIN_CHUNK_SIZE + " bytes, at most "
+                    + Integer.MAX_VALUE);
+        }
+
+        return chunkSize;
+    }
+
+    private static int checkFlushInterval(final int flushInterval, final String option) {
+        if (flushInterval < 0) {
+            throw new IllegalArgumentException("Invalid " + option + " " + flushInterval
+                    + ": the flush interval must be 0, to flush only at the end, or positive");
+        }
+
+        return flushInterval;
+    }
+}
@@ -18,10 +18,12 @@ public final class Test {
     }
 
     /**
-     * @param args input files
+     * @param args options, see {@link RunOptions#parse}; {@code --mmap} memory maps the input
+     *             and {@code --async} writes the output on a separate thread
      * @throws IOException in case of exceptions to reading / writing
      */
     public static void main(final String[] args) throws IOException {
+        RunOptions options = RunOptions.parse(args);
         File directory = new File(CheckerConstants.TESTS_PATH);
         File[] inputDir = directory.listFiles();
 
@@ -32,7 +34,7 @@ public final class Test {
             String fileName = scanner.next();
             for (File file : inputDir) {
                 if (file.getName().equalsIgnoreCase(fileName)) {
-                    Main.action(file.getName(), CheckerConstants.OUT_FILE);
+                    Main.action(file.getName(), CheckerConstants.OUT_FILE, options);
                     break;
                 }
             }
@@ -0,0 +1,48 @@
+package org.poo.utils;
+
+import java.util.Random;
+
+/**
+ * A 16 digit card number, packed into a {@code long}. Card numbers are kept in this form
+ * inside the bank and are only formatted back to digits at the JSON boundary.
+ *
+ * @param value the number formed by the 16 digits.
+ */
+public record CardNumber(long value) {
+    private static final int DIGITS = 16;
+
+    /**
+     * Generates a card number, drawing one digit at a time from the given generator.
+     *
+     * @param random the generator.
+     * @return the card number.
+     */
+    static CardNumber generate(final Random random) {
+        return new CardNumber(Digits.next(random, DIGITS));
+    }
+
+    /**
+     * Parses a card number written as 16 decimal digits.
+     *
+     * @param text the card number.
+     * @return the card number, or {@code null} if the text is not a valid card number.
+     */
+    public static CardNumber parse(final String text) {
+        if (text == null || text.length() != DIGITS) {
+            return null;
+        }
+
+        final long value = Digits.parse(text, 0, DIGITS);
+        return value < 0 ? null : new CardNumber(value);
+    }
+
+    /**
+     * @return the card number as 16 decimal digits.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder(DIGITS);
+        Digits.append(builder, value, DIGITS);
+        return builder.toString();
+    }
+}
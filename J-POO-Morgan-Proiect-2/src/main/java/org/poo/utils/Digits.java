@@ -0,0 +1,59 @@
+package org.poo.utils;
+
+import java.util.Random;
+
+/**
+ * Helpers for the numbers of the bank written as fixed runs of decimal digits, such as card
+ * numbers and IBANs, which are packed into a {@code long} instead of kept as text.
+ */
+final class Digits {
+    private static final int DIGIT_BOUND = 10;
+
+    private Digits() {
+    }
+
+    /**
+     * Draws the given number of decimal digits and packs them, the first digit drawn being the
+     * most significant one.
+     */
+    static long next(final Random random, final int count) {
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            value = value * DIGIT_BOUND + random.nextInt(DIGIT_BOUND);
+        }
+
+        return value;
+    }
+
+    /**
+     * Parses a run of decimal digits.
+     *
+     * @return the value of the digits, or {@code -1} if a character is not a digit.
+     */
+    static long parse(final String text, final int from, final int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            final char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * DIGIT_BOUND + (c - '0');
+        }
+
+        return value;
+    }
+
+    /**
+     * Writes a value on a fixed number of decimal digits, with leading zeros.
+     */
+    static void append(final StringBuilder builder, final long value, final int count) {
+        final char[] digits = new char[count];
+        long remaining = value;
+        for (int i = count - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + remaining % DIGIT_BOUND);
+            remaining /= DIGIT_BOUND;
+        }
+
+        builder.append(digits);
+    }
+}
@@ -0,0 +1,66 @@
+package org.poo.utils;
+
+import java.util.Random;
+
+/**
+ * An IBAN of the bank, {@code RO}, two check digits, {@code POOB} and a 16 digit account
+ * number. Only the numeric parts are kept; the fixed parts are added back when the IBAN is
+ * formatted at the JSON boundary.
+ *
+ * @param checkDigits   the two digits following the country code.
+ * @param accountNumber the number formed by the last 16 digits.
+ */
+public record Iban(int checkDigits, long accountNumber) {
+    private static final String COUNTRY = "RO";
+    private static final String BANK = "POOB";
+    private static final int CHECK_DIGITS = 2;
+    private static final int BANK_START = COUNTRY.length() + CHECK_DIGITS;
+    private static final int ACCOUNT_DIGITS = 16;
+    private static final int ACCOUNT_START = BANK_START + BANK.length();
+    private static final int LENGTH = ACCOUNT_START + ACCOUNT_DIGITS;
+
+    /**
+     * Generates an IBAN, drawing one digit at a time from the given generator.
+     *
+     * @param random the generator.
+     * @return the IBAN.
+     */
+    static Iban generate(final Random random) {
+        final int checkDigits = (int) Digits.next(random, CHECK_DIGITS);
+        return new Iban(checkDigits, Digits.next(random, ACCOUNT_DIGITS));
+    }
+
+    /**
+     * Parses an IBAN of the bank.
+     *
+     * @param text the IBAN.
+     * @return the IBAN, or {@code null} if the text is not an IBAN of the bank.
+     */
+    public static Iban parse(final String text) {
+        if (text == null || text.length() != LENGTH || !text.startsWith(COUNTRY)
+                || !text.startsWith(BANK, BANK_START)) {
+            return null;
+        }
+
+        final long checkDigits = Digits.parse(text, COUNTRY.length(), BANK_START);
+        final long accountNumber = Digits.parse(text, ACCOUNT_START, LENGTH);
+        if (checkDigits < 0 || accountNumber < 0) {
+            return null;
+        }
+
+        return new Iban((int) checkDigits, accountNumber);
+    }
+
+    /**
+     * @return the IBAN in its written form.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder(LENGTH);
+        builder.append(COUNTRY);
+        Digits.append(builder, checkDigits, CHECK_DIGITS);
+        builder.append(BANK);
+        Digits.append(builder, accountNumber, ACCOUNT_DIGITS);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,46 @@
+package org.poo.utils;
+
+import java.util.Random;
+
+/**
+ * Generates the IBANs and card numbers of one bank. Every bank has its own generator, seeded
+ * the same way, so banks running side by side generate the same numbers as a bank running
+ * alone. The generator may be shared by several threads.
+ */
+public final class NumberGenerator {
+    private static final int IBAN_SEED = 1;
+    private static final int CARD_SEED = 2;
+
+    private Random ibanRandom;
+    private Random cardRandom;
+
+    public NumberGenerator() {
+        reset();
+    }
+
+    /**
+     * Generates an IBAN code.
+     *
+     * @return the IBAN, packed into its numeric parts
+     */
+    public synchronized Iban nextIBAN() {
+        return Iban.generate(ibanRandom);
+    }
+
+    /**
+     * Generates a card number.
+     *
+     * @return the card number, packed into a long
+     */
+    public synchronized CardNumber nextCardNumber() {
+        return CardNumber.generate(cardRandom);
+    }
+
+    /**
+     * Resets the seeds between runs.
+     */
+    public synchronized void reset() {
+        ibanRandom = new Random(IBAN_SEED);
+        cardRandom = new Random(CARD_SEED);
+    }
+}